@@ -0,0 +1,142 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Boards and games used by the benchmarks. A board is either one of the boards
+ * shipped with the game (loaded by its name), or a synthetic board, which is
+ * named <code>synthetic-N</code> and has N x N spaces with randomly placed walls,
+ * conveyor belts, gears and checkpoints.
+ *
+ */
+final class BenchmarkBoards {
+
+    static final String SYNTHETIC = "synthetic-";
+
+    static final List<String> COLORS = Arrays.asList("red", "green", "blue", "orange", "grey", "magenta");
+
+    private BenchmarkBoards() {}
+
+    /**
+     * Loads a shipped board or creates a synthetic board, depending on the name.
+     *
+     * @param name the name of the board
+     * @return the board
+     */
+    static Board board(String name) {
+        if (name.startsWith(SYNTHETIC)) {
+            return synthetic(Integer.parseInt(name.substring(SYNTHETIC.length())), 42);
+        }
+        return LoadBoard.loadBoard(name);
+    }
+
+    /**
+     * Creates a square board with a reproducible random layout. About every tenth
+     * space has a wall, and about every sixth space has a field action.
+     *
+     * @param size the width and height of the board
+     * @param seed the seed for the layout
+     * @return the synthetic board
+     */
+    static Board synthetic(int size, long seed) {
+        Random random = new Random(seed);
+        Board board = new Board(size, size, SYNTHETIC + size);
+        Heading[] headings = Heading.values();
+        int checkpoints = 0;
+
+        // the first column is kept free, since the default spawn spaces are there
+        for (int x = 1; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                Space space = board.getSpace(x, y);
+                if (random.nextInt(10) == 0) {
+                    space.addWall(headings[random.nextInt(headings.length)]);
+                }
+                int action = random.nextInt(30);
+                if (action < 3) {
+                    space.setAction(new ConveyorBelt(headings[random.nextInt(headings.length)]));
+                } else if (action == 3) {
+                    space.setAction(new Gear(random.nextBoolean()));
+                } else if (action == 4 && checkpoints < 4) {
+                    space.setAction(new Checkpoint(++checkpoints));
+                }
+            }
+        }
+        board.setNumberOfCheckpoints(checkpoints);
+        return board;
+    }
+
+    /**
+     * Creates a game on the given board with the given number of robots, which
+     * is in the programming phase.
+     *
+     * @param board the board of the game
+     * @param robots the number of robots
+     * @return the game controller of the game
+     */
+    static GameController game(Board board, int robots) {
+        GameController gameController = new GameController(board);
+        gameController.initialize(robots, COLORS);
+        return gameController;
+    }
+
+    /**
+     * Fills the registers of all players with the first cards of their hands,
+     * and finishes the programming phase.
+     *
+     * @param gameController the game in the programming phase
+     */
+    static void program(GameController gameController) {
+        Board board = gameController.board;
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+            }
+        }
+        gameController.finishProgrammingPhase();
+    }
+
+    /**
+     * Executes all registers of all players. Interactive cards are always
+     * answered with their first option.
+     *
+     * @param gameController the game in the activation phase
+     */
+    static void executeRound(GameController gameController) {
+        Board board = gameController.board;
+        gameController.executePrograms();
+        while (board.getPhase() == Phase.PLAYER_INTERACTION) {
+            Player player = board.getCurrentPlayer();
+            Command command = player.getProgramField(board.getStep()).getCard().command;
+            gameController.executeCommandOptionAndContinue(player, command.getOptions().get(0));
+        }
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for a complete activation phase: all five registers of all robots,
+ * including the field actions after each register. Before each invocation,
+ * new cards are dealt and the registers are programmed; note that the
+ * allocation reported by the GC profiler includes this preparation.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ExecuteProgramsBenchmark {
+
+    @Param({"defaultboard", "Trailerpark", "demo", "synthetic-32", "synthetic-128"})
+    public String board;
+
+    @Param({"2", "4", "6"})
+    public int robots;
+
+    private GameController gameController;
+
+    @Setup(Level.Invocation)
+    public void setUpRound() {
+        if (gameController == null || gameController.board.getPhase() == Phase.FINISHED) {
+            gameController = BenchmarkBoards.game(BenchmarkBoards.board(board), robots);
+        }
+        if (gameController.board.getPhase() != Phase.PROGRAMMING) {
+            gameController.startProgrammingPhase();
+        }
+        BenchmarkBoards.program(gameController);
+    }
+
+    @Benchmark
+    public Board executePrograms() {
+        BenchmarkBoards.executeRound(gameController);
+        return gameController.board;
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for moving robots: a single move of a robot which pushes another
+ * robot, and the activation of all field actions of the board. Since both
+ * change the positions of the robots, the robots are put back to their start
+ * positions in each invocation, which is part of the measurement.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MovementBenchmark {
+
+    @Param({"defaultboard", "Trailerpark", "demo", "synthetic-32", "synthetic-128"})
+    public String board;
+
+    @Param({"2", "4", "6"})
+    public int robots;
+
+    private GameController gameController;
+
+    private Player[] players;
+    private Space[] starts;
+    private Heading[] headings;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        gameController = BenchmarkBoards.game(BenchmarkBoards.board(board), robots);
+        Board b = gameController.board;
+
+        // The robots are lined up in a column in the middle of the board, facing
+        // south; the first robot pushes all others when it moves forward. The
+        // remaining start positions are in the middle of the board, so that they
+        // are likely to be affected by field actions.
+        players = new Player[robots];
+        starts = new Space[robots];
+        headings = new Heading[robots];
+        int x = b.width / 2;
+        for (int i = 0; i < robots; i++) {
+            players[i] = b.getPlayer(i);
+            starts[i] = b.getSpace(x, (b.height - robots) / 2 + i);
+            headings[i] = Heading.SOUTH;
+        }
+        reset();
+    }
+
+    private void reset() {
+        // all robots are taken off the board first, so that no robot is put
+        // on a space which is still occupied by another robot
+        for (Player player : players) {
+            player.setSpace(null);
+        }
+        for (int i = 0; i < players.length; i++) {
+            Player player = players[i];
+            player.setRebooting(false);
+            player.setHeading(headings[i]);
+            player.setSpace(starts[i]);
+        }
+    }
+
+    @Benchmark
+    public Space moveToSpaceWithPush() {
+        reset();
+        gameController.moveForward(players[0], Heading.SOUTH);
+        return players[players.length - 1].getSpace();
+    }
+
+    @Benchmark
+    public Board executeFieldActions() {
+        reset();
+        gameController.executeFieldActions();
+        return gameController.board;
+    }
+
+}
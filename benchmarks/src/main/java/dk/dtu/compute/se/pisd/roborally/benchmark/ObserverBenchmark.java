@@ -0,0 +1,76 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Observer;
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark for notifying the observers of a subject, for different numbers
+ * of observers.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ObserverBenchmark {
+
+    @Param({"0", "1", "4", "16", "256"})
+    public int observers;
+
+    private TestSubject subject;
+
+    // the observers are kept here, since the subject only refers to them weakly
+    private Observer[] attached;
+
+    @Setup(Level.Trial)
+    public void setUp(Blackhole blackhole) {
+        subject = new TestSubject();
+        attached = new Observer[observers];
+        for (int i = 0; i < observers; i++) {
+            attached[i] = blackhole::consume;
+            subject.attach(attached[i]);
+        }
+    }
+
+    @Benchmark
+    public Subject notifyChange() {
+        subject.changed();
+        return subject;
+    }
+
+    static class TestSubject extends Subject {
+
+        void changed() {
+            notifyChange();
+        }
+
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for loading boards and saving games. Synthetic boards are saved
+ * to the boards folder for the duration of the trial, and the saved games are
+ * written to the active games folder; all these files are deleted again when
+ * the trial is over. The benchmarks must be run from the root folder of the
+ * project.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PersistenceBenchmark {
+
+    private static final String RESOURCES = "src" + File.separator + "main" + File.separator + "resources" + File.separator;
+    private static final String SAVE_NAME = "jmh-benchmark";
+
+    @Param({"defaultboard", "Trailerpark", "demo", "synthetic-32", "synthetic-128"})
+    public String board;
+
+    @Param({"2", "6"})
+    public int robots;
+
+    private String boardName;
+
+    private Board game;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (!new File(RESOURCES + "boards").isDirectory()) {
+            throw new IllegalStateException("The benchmarks must be run from the root folder of the project");
+        }
+        boardName = board;
+        if (board.startsWith(BenchmarkBoards.SYNTHETIC)) {
+            boardName = "jmh-" + board;
+            Board synthetic = BenchmarkBoards.board(board);
+            synthetic.setSpawnSpacesDefault(robots);
+            LoadBoard.saveBoard(synthetic, boardName);
+        }
+        GameController gameController = BenchmarkBoards.game(LoadBoard.loadBoard(boardName), robots);
+        game = gameController.board;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (!boardName.equals(board)) {
+            new File(RESOURCES + "boards" + File.separator + boardName + ".json").delete();
+        }
+        new File(RESOURCES + "activeGames" + File.separator + SAVE_NAME + ".json").delete();
+    }
+
+    @Benchmark
+    public Board loadBoard() {
+        return LoadBoard.loadBoard(boardName);
+    }
+
+    @Benchmark
+    public Board saveCurrentGame() {
+        LoadBoard.saveCurrentGame(game, SAVE_NAME);
+        return game;
+    }
+
+}
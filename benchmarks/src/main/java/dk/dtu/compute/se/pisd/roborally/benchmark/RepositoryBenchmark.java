@@ -0,0 +1,110 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.dal.Connector;
+import dk.dtu.compute.se.pisd.roborally.dal.Repository;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks comparing the latency of saving and loading a game through the
+ * {@link Repository} with saving and loading it as a JSON file in the active
+ * games folder. The database is an embedded H2 database in MySQL mode, in
+ * memory, so that the benchmark measures the cost of the statements, but not
+ * the round trips to a database server. The saved game is deleted when the
+ * trial is over. The benchmarks must be run from the root folder of the project.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RepositoryBenchmark {
+
+    private static final String RESOURCES = "src" + File.separator + "main" + File.separator + "resources" + File.separator;
+    private static final String SAVE_NAME = "jmh-repository";
+
+    @Param({"defaultboard", "Trailerpark"})
+    public String board;
+
+    @Param({"2", "6"})
+    public int robots;
+
+    private Connector connector;
+
+    private Repository repository;
+
+    private Board game;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        if (!new File(RESOURCES + "boards").isDirectory()) {
+            throw new IllegalStateException("The benchmarks must be run from the root folder of the project");
+        }
+        connector = new Connector("jdbc:h2:mem:" + SAVE_NAME + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "",
+                Connector.POOL_SIZE);
+        repository = new Repository(connector);
+        GameController gameController = BenchmarkBoards.game(LoadBoard.loadBoard(board), robots);
+        game = gameController.board;
+        if (!repository.createGameInDB(game, SAVE_NAME)) {
+            throw new IllegalStateException("Could not create the game in the database");
+        }
+        LoadBoard.saveCurrentGame(game, SAVE_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connector.close();
+        new File(RESOURCES + "activeGames" + File.separator + SAVE_NAME + ".json").delete();
+    }
+
+    @Benchmark
+    public boolean updateGameInDB() {
+        return repository.updateGameInDB(game);
+    }
+
+    @Benchmark
+    public Board loadGameFromDB() {
+        return repository.loadGameFromDB(game.getGameId());
+    }
+
+    @Benchmark
+    public Board saveJson() {
+        LoadBoard.saveCurrentGame(game, SAVE_NAME);
+        return game;
+    }
+
+    @Benchmark
+    public Board loadJson() {
+        return LoadBoard.loadActiveBoard(SAVE_NAME);
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.benchmark;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.BinarySaveFormat;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks comparing the JSON format of saved games with the binary
+ * {@link BinarySaveFormat}. The games are written to and read from memory, so
+ * that only the encoding and decoding is measured; decoding both formats
+ * includes loading the layout of the board. The sizes of both encodings are
+ * printed when the trial is set up. The benchmarks must be run from the root
+ * folder of the project.
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SaveFormatBenchmark {
+
+    @Param({"defaultboard", "Trailerpark", "demo"})
+    public String board;
+
+    @Param({"2", "6"})
+    public int robots;
+
+    private Board game;
+
+    private String json;
+
+    private byte[] binary;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        GameController gameController = BenchmarkBoards.game(LoadBoard.loadBoard(board), robots);
+        game = gameController.board;
+        json = encodeJson();
+        binary = encodeBinary();
+        System.out.println();
+        System.out.println(board + " with " + robots + " robots: JSON " +
+                json.getBytes(StandardCharsets.UTF_8).length + " bytes, binary " + binary.length + " bytes");
+    }
+
+    @Benchmark
+    public String encodeJson() throws IOException {
+        StringWriter out = new StringWriter();
+        LoadBoard.writeCurrentGame(game, out);
+        return out.toString();
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySaveFormat.write(game, out);
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public Board decodeJson() throws IOException {
+        return LoadBoard.readActiveGame(new StringReader(json));
+    }
+
+    @Benchmark
+    public Board decodeBinary() throws IOException {
+        return BinarySaveFormat.read(new ByteArrayInputStream(binary));
+    }
+
+}
@@ -21,29 +21,66 @@
  */
 package dk.dtu.compute.se.pisd.designpatterns.observer;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
-import java.util.WeakHashMap;
-
-// import java.util.HashSet;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * This is the subject of the observer design pattern roughly following
  * the definition of the GoF.
+ * <p>
+ * Changes can be grouped in a batch (see {@link #beginBatch()} and
+ * {@link #commitBatch()}): while a batch is open on a thread, the
+ * notifications of the subjects changed on that thread are held back;
+ * when the batch is committed, the observers of each changed subject
+ * are notified once.
  * 
  * @author Ekkart Kindler, ekki@dtu.dk
  *
  */
 public abstract class Subject {
 	
-	private Set<Observer> observers =
-			Collections.newSetFromMap(new WeakHashMap<>());
+	private static final WeakReference<Observer>[] NO_OBSERVERS = newReferences(0);
+
+	private static final VarHandle OBSERVERS;
+	static {
+		try {
+			OBSERVERS = MethodHandles.lookup().findVarHandle(
+					Subject.class, "observers", WeakReference[].class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private transient volatile WeakReference<Observer>[] observers = NO_OBSERVERS;
 	// Note: In JavaFX, the views do not have a way to know when they are
 	// removed from the window, and therefore cannot always unregister
 	// themselves from subjects they observe before the views become garbage.
-	// Therefore, the set of observers are maintained as a weak set, so
-	// that these observers are implicitly removed, when the observers
-	// would be garbage (if not for these references)!
+	// Therefore, the observers are referenced weakly only, so that these
+	// observers are implicitly removed, when the observers would be garbage
+	// (if not for these references)! The references of observers which are
+	// gone are removed lazily, when observers are attached or detached, or
+	// when a notification finds a cleared reference.
+	//
+	// The array is never modified; attaching and detaching replace it by
+	// a modified copy (copy-on-write), using compare-and-set, so that
+	// notifications can iterate over the array without locking and without
+	// allocating, and observers may attach or detach during a notification
+	// (which then still goes to the observers of the old array).
+	//
+	// The field is transient, so that serialisers (like Gson) which reflect
+	// on all fields of the model do not try to look into the references.
+
+	// The number of notifications sent by all subjects, for monitoring
+	private static final LongAdder NOTIFICATIONS = new LongAdder();
+
+	private static final ThreadLocal<Batch> BATCH = ThreadLocal.withInitial(Batch::new);
 
 	/**
 	 * This methods allows an observer to register with the subject
@@ -52,7 +89,19 @@ public abstract class Subject {
 	 * @param observer the observer who registers
 	 */
 	final public void attach(Observer observer) {
-		observers.add(observer);
+		if (observer == null) {
+			return;
+		}
+		WeakReference<Observer>[] current;
+		WeakReference<Observer>[] updated;
+		do {
+			current = observers;
+			if (indexOf(current, observer) >= 0) {
+				return;
+			}
+			updated = copyLive(current, null, 1);
+			updated[updated.length - 1] = new WeakReference<>(observer);
+		} while (!OBSERVERS.compareAndSet(this, current, updated));
 	}
 	
 	/**
@@ -62,7 +111,73 @@ public abstract class Subject {
 	 * @param observer the observer who unregisters
 	 */
 	final public void detach(Observer observer) {
-		observers.remove(observer);
+		WeakReference<Observer>[] current;
+		WeakReference<Observer>[] updated;
+		do {
+			current = observers;
+			if (indexOf(current, observer) < 0) {
+				return;
+			}
+			updated = copyLive(current, observer, 0);
+		} while (!OBSERVERS.compareAndSet(this, current, updated));
+	}
+
+	/**
+	 * Returns the position of the given observer in the array of
+	 * references, comparing observers by identity.
+	 */
+	private static int indexOf(WeakReference<Observer>[] references, Observer observer) {
+		for (int i = 0; i < references.length; i++) {
+			if (references[i].get() == observer) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns a copy of the given array of references without the
+	 * references which are cleared or refer to the excluded observer,
+	 * with the given number of free places at the end.
+	 */
+	private static WeakReference<Observer>[] copyLive(WeakReference<Observer>[] references,
+			Observer excluded, int free) {
+		int live = 0;
+		for (WeakReference<Observer> reference: references) {
+			Observer observer = reference.get();
+			if (observer != null && observer != excluded) {
+				live++;
+			}
+		}
+		if (live + free == 0) {
+			return NO_OBSERVERS;
+		}
+		WeakReference<Observer>[] copy = newReferences(live + free);
+		int i = 0;
+		for (WeakReference<Observer> reference: references) {
+			Observer observer = reference.get();
+			if (observer != null && observer != excluded) {
+				copy[i++] = reference;
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * Creates an array of references to observers of the given length
+	 * (Java does not allow to create arrays of a generic type directly).
+	 */
+	@SuppressWarnings("unchecked")
+	private static WeakReference<Observer>[] newReferences(int length) {
+		return (WeakReference<Observer>[]) new WeakReference<?>[length];
+	}
+
+	/**
+	 * Removes the cleared references from the array of observers. If the
+	 * array was changed concurrently, this is left to a later call.
+	 */
+	private void expunge(WeakReference<Observer>[] current) {
+		OBSERVERS.compareAndSet(this, current, copyLive(current, null, 0));
 	}
 
 	/**
@@ -71,9 +186,111 @@ public abstract class Subject {
 	 * relevant for the observer).
 	 */
 	final protected void notifyChange() {
-		for (Observer observer: observers) {
-			observer.update(this);
+		Batch batch = BATCH.get();
+		if (batch.depth > 0 || batch.flushing) {
+			if (batch.pending.add(this)) {
+				batch.changed.add(this);
+			}
+		} else {
+			notifyObservers();
 		}
 	}
 
+	private void notifyObservers() {
+		NOTIFICATIONS.increment();
+		WeakReference<Observer>[] current = observers;
+		boolean cleared = false;
+		for (int i = 0; i < current.length; i++) {
+			Observer observer = current[i].get();
+			if (observer != null) {
+				observer.update(this);
+			} else {
+				cleared = true;
+			}
+		}
+		if (cleared) {
+			expunge(current);
+		}
+	}
+
+	/**
+	 * Returns the number of notifications, which were sent by all subjects
+	 * since the start of the application. A notification is counted once,
+	 * however many observers the subject has; notifications held back in a
+	 * batch are counted when the batch is committed.
+	 *
+	 * @return the number of notifications sent
+	 */
+	public static long getNotificationCount() {
+		return NOTIFICATIONS.sum();
+	}
+
+	/**
+	 * Opens a batch of changes on the current thread. Until the batch
+	 * is committed, the observers of subjects changed on this thread
+	 * are not notified. Batches can be nested; the notifications are
+	 * sent only when the outermost batch is committed.
+	 * Every call of this method must be matched by a call of
+	 * {@link #commitBatch()}, best in a <code>finally</code> block.
+	 */
+	public static void beginBatch() {
+		BATCH.get().depth++;
+	}
+
+	/**
+	 * Commits the batch opened last on the current thread. If this is the
+	 * outermost batch, the observers of every subject changed during the
+	 * batch are notified once, in the order in which the subjects were
+	 * changed first.
+	 *
+	 * @throws IllegalStateException if no batch is open on this thread
+	 */
+	public static void commitBatch() {
+		Batch batch = BATCH.get();
+		if (batch.depth == 0) {
+			throw new IllegalStateException("No batch is open on this thread");
+		}
+		batch.depth--;
+		if (batch.depth == 0 && !batch.flushing) {
+			batch.flush();
+		}
+	}
+
+	/**
+	 * The changes of an open batch on one thread.
+	 */
+	private static final class Batch {
+
+		private final List<Subject> changed = new ArrayList<>();
+
+		// The subjects in the list of changed subjects, whose observers are
+		// not notified yet; they are kept per batch (and not in a field of the
+		// subject), since the same subject may be changed in batches on
+		// different threads. Subjects are compared by identity.
+		private final Set<Subject> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+
+		private int depth;
+
+		private boolean flushing;
+
+		private void flush() {
+			flushing = true;
+			try {
+				// observers might change other subjects when they are
+				// notified; these subjects are added to the end of the list
+				// and are notified by this loop too
+				for (int i = 0; i < changed.size(); i++) {
+					Subject subject = changed.get(i);
+					pending.remove(subject);
+					subject.notifyObservers();
+				}
+			} finally {
+				pending.clear();
+				changed.clear();
+				flushing = false;
+			}
+		}
+
+	}
+
 }
@@ -23,7 +23,10 @@ package dk.dtu.compute.se.pisd.roborally;
 
 import dk.dtu.compute.se.pisd.roborally.controller.AppController;
 import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.GameRecording;
 import dk.dtu.compute.se.pisd.roborally.view.BoardView;
+import dk.dtu.compute.se.pisd.roborally.view.ReplayView;
 import dk.dtu.compute.se.pisd.roborally.view.RoboRallyMenuBar;
 import javafx.application.Application;
 import javafx.scene.Scene;
@@ -88,6 +91,21 @@ public class RoboRally extends Application {
         stage.sizeToScene();
     }
 
+    /**
+     * Opens a new window with a replay of the recorded game on the given board.
+     *
+     * @param board the board of the game
+     * @param recording the recording of the game
+     */
+    public void createReplayView(Board board, GameRecording recording) {
+        Stage replayStage = new Stage();
+        replayStage.initOwner(stage);
+        replayStage.setTitle("RoboRally - Replay");
+        replayStage.setScene(new Scene(new ReplayView(board, recording)));
+        replayStage.sizeToScene();
+        replayStage.show();
+    }
+
     @Override
     public void stop() throws Exception {
         super.stop();
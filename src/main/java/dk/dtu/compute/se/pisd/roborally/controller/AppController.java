@@ -3,16 +3,28 @@ package dk.dtu.compute.se.pisd.roborally.controller;
 import dk.dtu.compute.se.pisd.designpatterns.observer.Observer;
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.RoboRally;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.GameJournal;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.GameSaver;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.ReplayFile;
 import dk.dtu.compute.se.pisd.roborally.model.*;
 import javafx.application.Platform;
 import javafx.scene.control.*;
 import javafx.scene.control.Alert.AlertType;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 /**
  * The AppController class handles the overall game state and user actions from the game menu interface.
  * It allows users to create new games, load and save games, manage player count and game board,
@@ -22,12 +34,25 @@ import java.util.Optional;
  * @author Jakob Jacobsen, s204502
  * @author William Aslak Tonning, s205838
  */
-public class AppController implements Observer {
+public class AppController implements Observer, GameListener {
     final private List<Integer> PLAYER_NUMBER_OPTIONS = Arrays.asList(2, 3, 4, 5, 6);
     final private int MAX_PLAYERS = 6;
     final private List<String> PLAYER_COLORS = Arrays.asList("red", "green", "blue", "orange", "grey", "magenta");
     final private RoboRally roboRally;
+    /**
+     * The number of steps between two autosaves of the running game (see
+     * {@link LoadBoard#AUTOSAVE}); the number can be set by the system property
+     * "roborally.autosave" (0 switches the autosave off).
+     */
+    final private int AUTOSAVE_STEPS = Integer.getInteger("roborally.autosave", 20);
+    final private long SAVE_TIMEOUT = 5000;
+    final private DateTimeFormatter REPLAY_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    final private GameSaver gameSaver = new GameSaver(LoadBoard.getActiveGamesFolder());
     private GameController gameController;
+    private GameLoop gameLoop;
+    private Future<?> gameStart;
+    private volatile GameJournal gameJournal;
+    private volatile ReplayRecorder replayRecorder;
     /**
      * Constructs a new AppController with the specified RoboRally instance.
      *
@@ -65,8 +90,36 @@ public class AppController implements Observer {
             board = LoadBoard.loadBoard(selectBoard(boards));
         }
 
-        gameController = new GameController(board);
-        gameController.initialize(playerCount, PLAYER_COLORS);
+        new GameController(board).initialize(playerCount, PLAYER_COLORS);
+        startGameLoop(board);
+    }
+    /**
+     * Starts the game loop for the game on the given board, which runs the game
+     * on its own thread, and shows the board.
+     *
+     * @param board the board of the game
+     */
+    private void startGameLoop(@NotNull Board board) {
+        // the game can be recovered from this save and the journal of the game loop;
+        // the save is written by the game saver, and the journal is started on the
+        // game loop once the save is written, so that both start with the same game
+        CompletableFuture<Path> recovery = gameSaver.save(board, LoadBoard.RECOVERY);
+        gameLoop = new GameLoop(board, Platform::runLater);
+        gameStart = gameLoop.submit(engine -> {
+            replayRecorder = new ReplayRecorder(engine.board);
+            engine.addGameListener(replayRecorder);
+            if (AUTOSAVE_STEPS > 0) {
+                engine.addGameListener(new Autosave(engine.board, gameSaver, LoadBoard.AUTOSAVE, AUTOSAVE_STEPS));
+            }
+            try {
+                recovery.join();
+                gameJournal = GameJournal.start(LoadBoard.getJournalPath(LoadBoard.RECOVERY), engine.board);
+            } catch (IOException | CompletionException e) {
+                System.out.println(e);
+            }
+        });
+        gameController = gameLoop.getController();
+        gameController.addGameListener(this);
         roboRally.createBoardView(gameController);
     }
     /**
@@ -171,8 +224,14 @@ public class AppController implements Observer {
             showAlert("Saving and overriding " + result);
         }
 
-        LoadBoard.saveCurrentGame(this.gameController.board, result);
-        System.out.println("Saved as " + result);
+        // the game is encoded here, and written without blocking the user interface
+        gameSaver.save(this.gameController.board, result).whenComplete((file, e) -> {
+            if (e != null) {
+                Platform.runLater(() -> showAlert("Could not save the game as " + result));
+            } else {
+                System.out.println("Saved as " + result);
+            }
+        });
 
     }
     /**
@@ -193,9 +252,75 @@ public class AppController implements Observer {
             return;
         }
 
-        gameController = new GameController(board);
-        roboRally.createBoardView(gameController);
+        startGameLoop(board);
+
+    }
+
+    /**
+     * Opens a replay of the current game, from its start up to now. If no game
+     * is running, the user can pick the replay of a finished game.
+     */
+    public void replayGame() {
+        if (gameController == null) {
+            String[] replays = LoadBoard.getReplays();
+            if (replays == null || replays.length == 0) {
+                showAlert("There is no game to replay");
+                return;
+            }
+            String name = selectBoard(replays);
+            ReplayFile replay = name == null || name.isEmpty() ? null : LoadBoard.loadReplay(name);
+            if (replay == null) {
+                showAlert("Could not load replay");
+                return;
+            }
+            roboRally.createReplayView(replay.getBoard(), replay.getRecording());
+            return;
+        }
 
+        ReplayRecorder recorder = replayRecorder;
+        if (recorder == null) {
+            showAlert("There is no game to replay");
+            return;
+        }
+        roboRally.createReplayView(gameController.board, recorder.getRecording());
+    }
+
+    /**
+     * Saves the recording of the current game as a replay, which is named after
+     * the board and the time the game was finished.
+     */
+    private void saveReplay() {
+        ReplayRecorder recorder = replayRecorder;
+        if (gameController != null && recorder != null) {
+            Board board = gameController.board;
+            String map = board.getMap() == null ? "game" : board.getMap();
+            String name = map + "-" + LocalDateTime.now().format(REPLAY_TIME);
+            gameSaver.saveReplay(board, recorder.getRecording(), name).whenComplete((file, e) -> {
+                if (e != null) {
+                    System.out.println(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Recovers the last game, which was not stopped properly (for example, because
+     * the application crashed), from the save at its start and its journal. If
+     * there is no such save, the game is loaded from its last autosave.
+     */
+    public void recoverGame() {
+        if (gameController != null) {
+            return;
+        }
+        Board board = LoadBoard.loadRecoveredGame(LoadBoard.RECOVERY);
+        if (board == null) {
+            board = LoadBoard.loadActiveBoard(LoadBoard.AUTOSAVE);
+        }
+        if (board == null) {
+            showAlert("There is no game to recover");
+            return;
+        }
+        startGameLoop(board);
     }
 
     /**
@@ -214,6 +339,30 @@ public class AppController implements Observer {
             // here we save the game (without asking the user).
             //saveGame();
 
+            // the start of the game on the game loop is cancelled or waited for,
+            // so that the journal is not started after it would be closed here
+            if (!gameStart.cancel(false)) {
+                try {
+                    gameStart.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException | CancellationException e) {
+                    System.out.println(e);
+                }
+            }
+            gameStart = null;
+            gameLoop.shutdown();
+            gameLoop = null;
+            // the game can be replayed after it was stopped
+            saveReplay();
+            if (gameJournal != null) {
+                gameJournal.close();
+                gameJournal = null;
+            }
+            // the game was ended on purpose, so it is not recovered anymore
+            gameSaver.delete(LoadBoard.RECOVERY);
+            gameSaver.delete(LoadBoard.AUTOSAVE);
+            replayRecorder = null;
             gameController = null;
             roboRally.createBoardView(null);
             return true;
@@ -239,6 +388,8 @@ public class AppController implements Observer {
         // If the user did not cancel, the RoboRally application will exit
         // after the option to save the game
         if (gameController == null || stopGame()) {
+            // the saves, which are still being written, are finished first
+            gameSaver.shutdown(SAVE_TIMEOUT);
             Platform.exit();
         }
     }
@@ -250,6 +401,29 @@ public class AppController implements Observer {
     public boolean isGameRunning() {
         return gameController != null;
     }
+    /**
+     * Informs the user that the game has been won and exits the application afterwards.
+     * Since the game controller might not run on the JavaFX application thread, the alert
+     * is shown on that thread.
+     *
+     * @param player the player who has won the game
+     */
+    @Override
+    public void playerWon(@NotNull Player player) {
+        if (!Platform.isFxApplicationThread()) {
+            Platform.runLater(() -> playerWon(player));
+            return;
+        }
+        Alert alert = new Alert(AlertType.INFORMATION);
+        alert.setTitle("WIN!");
+        alert.setContentText("Player " + player.getName() + " has won!\nExiting game now!");
+        alert.showAndWait();
+        // the replay of the game is written before exiting
+        stopGame();
+        gameSaver.shutdown(SAVE_TIMEOUT);
+        Platform.exit();
+    }
+
     /**
      * Updates the game state based on changes in the game state. Currently not implemented.
      *
@@ -0,0 +1,81 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.DeltaSaver;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.GameSaver;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Saves a game, while it is played, every given number of steps (i.e. every
+ * card of a register executed by a player). The first save is a full save,
+ * the following saves are deltas, which are compacted from time to time (see
+ * {@link DeltaSaver}). The game is saved by a {@link GameSaver}, so that saving
+ * does not hold up the game. The autosave must be added as a {@link GameListener}
+ * to the controller of the board.
+ *
+ */
+public class Autosave implements GameListener {
+
+    /**
+     * The size of the deltas in bytes, after which they are compacted.
+     */
+    private static final int COMPACTION_THRESHOLD = 16 * 1024;
+
+    private final Board board;
+
+    private final DeltaSaver saver;
+
+    private final int interval;
+
+    private int steps;
+
+    /**
+     * Creates an autosave for the game on the given board.
+     *
+     * @param board the board of the game
+     * @param saver the saver for the saves
+     * @param name the name of the save
+     * @param interval the number of steps between two saves; must be positive
+     */
+    public Autosave(@NotNull Board board, @NotNull GameSaver saver, @NotNull String name, int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("The interval of an autosave must be positive");
+        }
+        this.board = board;
+        this.saver = new DeltaSaver(saver, name, COMPACTION_THRESHOLD);
+        this.interval = interval;
+    }
+
+    @Override
+    public void stepExecuted(@NotNull Player player, int register) {
+        if (++steps % interval == 0) {
+            saver.checkpoint(board).exceptionally(e -> {
+                System.out.println("Autosave failed: " + e);
+                return null;
+            });
+        }
+    }
+
+}
@@ -21,10 +21,8 @@
  */
 package dk.dtu.compute.se.pisd.roborally.controller;
 
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.model.*;
-import javafx.application.Platform;
-import javafx.scene.control.Alert;
-import javafx.scene.control.ButtonType;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
@@ -41,6 +39,9 @@ import java.util.List;
  *     <li>Rebooting
  *     <li>Checking for win conditions
  * </ul>
+ * The controller does not depend on JavaFX. Everything which happens in the game and which
+ * might be of interest to others (phase changes, reboots, checkpoints and the win) is reported
+ * to the registered {@link GameListener}s, so that the game can also run headless.
  *
  * @author Jakob Jacosen, s204502
  * @author Ekkart Kindler, ekki@dtu.dk
@@ -49,13 +50,44 @@ public class GameController {
 
     final public Board board;
 
+    final private List<GameListener> listeners = new ArrayList<>();
+
+    private volatile Player winner;
+
+    final private SplittableRandom random;
+
+    private static final ActivationOrder[] ACTIVATION_ORDERS = ActivationOrder.values();
+
+    private static final int NO_CONVEYOR_MOVE = -2;
+
+    // destinations of the players on conveyor belts, reused by handleConveyorMove()
+    private int[] conveyorDestinations = new int[0];
+
+    /**
+     * The robots of the push chain of the current move, in the order in which
+     * they are lined up; reused, so that moves do not allocate.
+     */
+    private Player[] pushChain = new Player[0];
+
+    final private StepLatencies stepLatencies = new StepLatencies();
+
     /**
      * Creates a new GameController with the provided board.
+     * The command cards are dealt by a random generator, which is owned by this game
+     * only and which is created from the seed of the board. If cards have been dealt
+     * already (e.g. in a loaded game), the generator is advanced by that many cards;
+     * so a game deals exactly the same cards, no matter whether it was saved and
+     * loaded in between or not.
      *
      * @param board the game board
      */
     public GameController(@NotNull Board board) {
         this.board = board;
+        this.random = new SplittableRandom(board.getSeed());
+        int commands = Command.values().length;
+        for (long i = 0; i < board.getCardsDealt(); i++) {
+            random.nextInt(commands);
+        }
     }
 
     /**
@@ -68,27 +100,89 @@ public class GameController {
      * @param colors      the colors of the players
      */
     public void initialize(int playerCount, List<String> colors) {
-        if (board.getSpawnSpaces().isEmpty()) board.setSpawnSpacesDefault(playerCount);
+        Subject.beginBatch();
+        try {
+            if (board.getSpawnSpaces().isEmpty()) board.setSpawnSpacesDefault(playerCount);
+
+            for (int i = 0; i < playerCount; i++) {
+                Player player = new Player(board, colors.get(i), "Player " + (i + 1));
+                Space spawnSpace = board.getSpawnSpaces().get(i);
+                player.setSpawnSpace(spawnSpace);
+                player.setSpace(spawnSpace);
+                board.addPlayer(player);
+            }
+            startProgrammingPhase();
+        } finally {
+            Subject.commitBatch();
+        }
+    }
 
-        for (int i = 0; i < playerCount; i++) {
-            Player player = new Player(board, colors.get(i), "Player " + (i + 1));
-            Space spawnSpace = board.getSpawnSpaces().get(i);
-            player.setSpawnSpace(spawnSpace);
-            player.setSpace(spawnSpace);
-            board.addPlayer(player);
+    /**
+     * Registers a listener, which is notified about the events of this game.
+     *
+     * @param listener the listener to add
+     */
+    public void addGameListener(@NotNull GameListener listener) {
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
         }
-        startProgrammingPhase();
+    }
+
+    /**
+     * Unregisters a listener again.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeGameListener(@NotNull GameListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the latencies of the recent register steps of this game, including
+     * the notification of the observers of the model.
+     *
+     * @return the latencies of the recent steps
+     */
+    public StepLatencies getStepLatencies() {
+        return stepLatencies;
+    }
+
+    /**
+     * Returns the number of commands, which were given to this controller but
+     * are not executed yet. Since this controller executes commands right away,
+     * this is always 0; controllers which run the game on another thread
+     * (see {@link GameLoop}) may return more.
+     *
+     * @return the number of commands waiting for execution
+     */
+    public int getQueuedCommands() {
+        return 0;
+    }
+
+    /**
+     * Returns the player who has won the game.
+     *
+     * @return the winner of the game, or null if the game is not finished yet
+     */
+    public Player getWinner() {
+        return winner;
     }
 
     // Not to be used in the actual game. Just for testing purposes
     public void moveCurrentPlayerToSpace(@NotNull Space space) {
+        if (winner != null) return;
 
         if (space != null && space.board == board) {
             Player currentPlayer = board.getCurrentPlayer();
             if (currentPlayer != null && space.getPlayer() == null) {
-                currentPlayer.setSpace(space);
-                int playerNumber = (board.getPlayerNumber(currentPlayer) + 1) % board.getPlayersNumber();
-                board.setCurrentPlayer(board.getPlayer(playerNumber));
+                Subject.beginBatch();
+                try {
+                    currentPlayer.setSpace(space);
+                    int playerNumber = (board.getPlayerNumber(currentPlayer) + 1) % board.getPlayersNumber();
+                    board.setCurrentPlayer(board.getPlayer(playerNumber));
+                } finally {
+                    Subject.commitBatch();
+                }
             }
         }
 
@@ -103,8 +197,12 @@ public class GameController {
      * @param number the checkpoint number
      */
     public void updateCheckpoint(@NotNull Player player, Space space, int number) {
+        if (winner != null) return;
+
         player.updateCheckpoint();
-        System.out.println(player.getName() + " - new checkpoint: " + number);
+        for (GameListener listener : listeners) {
+            listener.checkpointReached(player, number);
+        }
 
         if (board.getNumberOfCheckpoints() == number) {
             handleWin(player);
@@ -112,14 +210,37 @@ public class GameController {
         player.setSpawnSpace(space);
     }
 
-    //Now gives a proper alert to the user that the game as ended.
+    /**
+     * Ends the game with the given player as the winner. The game is put into
+     * phase {@link Phase#FINISHED} and the listeners are notified. How the win
+     * is presented to the user (if at all) is up to the listeners. From then on,
+     * the controller ignores all further operations on the game.
+     *
+     * @param player the player who has won the game
+     */
     public void handleWin(@NotNull Player player) {
-        System.out.println("Player "+player.getName()+" has won!");
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("WIN!");
-        alert.setContentText("Player "+player.getName()+" has won!\nExiting game now!");
-        alert.showAndWait();
-        Platform.exit();
+        if (winner != null) return;
+
+        winner = player;
+        setPhase(Phase.FINISHED);
+        for (GameListener listener : listeners) {
+            listener.playerWon(player);
+        }
+    }
+
+    /**
+     * Sets the phase of the board and notifies the listeners if the phase
+     * actually changed.
+     *
+     * @param phase the new phase
+     */
+    private void setPhase(@NotNull Phase phase) {
+        if (board.getPhase() != phase) {
+            board.setPhase(phase);
+            for (GameListener listener : listeners) {
+                listener.phaseChanged(phase);
+            }
+        }
     }
 
     /**
@@ -128,41 +249,49 @@ public class GameController {
      * program fields and assigns random command cards to their empty card fields.
      */
     public void startProgrammingPhase() {
-        board.setPhase(Phase.PROGRAMMING);
-        board.setCurrentPlayer(board.getPlayer(0));
-        board.setStep(0);
+        if (winner != null) return;
 
-        for (int i = 0; i < board.getPlayersNumber(); i++) {
-            Player player = board.getPlayer(i);
-            if (player.isRebooting()) {
-                player.setRebooting(false);
-                player.respawn();
-            }
-            if (player != null) {
-                for (int j = 0; j < Player.NO_REGISTERS; j++) {
-                    CommandCardField field = player.getProgramField(j);
-                    field.setCard(null);
-                    field.setVisible(true);
+        Subject.beginBatch();
+        try {
+            setPhase(Phase.PROGRAMMING);
+            board.setCurrentPlayer(board.getPlayer(0));
+            board.setStep(0);
+
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                Player player = board.getPlayer(i);
+                if (player.isRebooting()) {
+                    player.setRebooting(false);
+                    player.respawn();
                 }
-                for (int j = 0; j < Player.NO_CARDS; j++) {
-                    CommandCardField field = player.getCardField(j);
-                    if (field.getCard() == null)
-                        field.setCard(generateRandomCommandCard());
-                    field.setVisible(true);
+                if (player != null) {
+                    for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                        CommandCardField field = player.getProgramField(j);
+                        field.setCard(null);
+                        field.setVisible(true);
+                    }
+                    for (int j = 0; j < Player.NO_CARDS; j++) {
+                        CommandCardField field = player.getCardField(j);
+                        if (field.getCard() == null)
+                            field.setCard(generateRandomCommandCard());
+                        field.setVisible(true);
+                    }
                 }
             }
+        } finally {
+            Subject.commitBatch();
         }
     }
 
     /**
-     * Generates a random command card using the {@link Command} enum values.
+     * Generates a random command card using the {@link Command} enum values
+     * and the random generator of this game.
      *
      * @return the newly generated command card
      */
     private CommandCard generateRandomCommandCard() {
         Command[] commands = Command.values();
-        int random = (int) (Math.random() * commands.length);
-        return new CommandCard(commands[random]);
+        board.setCardsDealt(board.getCardsDealt() + 1);
+        return new CommandCard(commands[random.nextInt(commands.length)]);
     }
 
     /**
@@ -171,11 +300,18 @@ public class GameController {
      * and the step to zero.
      */
     public void finishProgrammingPhase() {
-        makeProgramFieldsInvisible();
-        makeProgramFieldsVisible(0);
-        board.setPhase(Phase.ACTIVATION);
-        board.setCurrentPlayer(board.getPlayer(0));
-        board.setStep(0);
+        if (winner != null) return;
+
+        Subject.beginBatch();
+        try {
+            makeProgramFieldsInvisible();
+            makeProgramFieldsVisible(0);
+            setPhase(Phase.ACTIVATION);
+            board.setCurrentPlayer(board.getPlayer(0));
+            board.setStep(0);
+        } finally {
+            Subject.commitBatch();
+        }
     }
 
     /**
@@ -208,6 +344,8 @@ public class GameController {
      * Executes all players' programming cards in their registers in order.
      */
     public void executePrograms() {
+        if (winner != null) return;
+
         board.setStepMode(false);
         continuePrograms();
     }
@@ -215,82 +353,116 @@ public class GameController {
      * Executes a program card in the current players register
      */
     public void executeStep() {
+        if (winner != null) return;
+
         board.setStepMode(true);
         continuePrograms();
     }
 
     /**
      * Continues the execution of players' programs. If the game is in step mode, it only executes the next step.
+     * Each step is executed in a batch of changes (see {@link Subject#beginBatch()}), so that the observers
+     * of the model are notified once per changed object and step.
      */
     private void continuePrograms() {
         do {
-            executeNextStep();
+            Player player = board.getCurrentPlayer();
+            int register = board.getStep();
+            long start = System.nanoTime();
+            Subject.beginBatch();
+            try {
+                executeNextStep();
+            } finally {
+                Subject.commitBatch();
+            }
+            stepLatencies.record(System.nanoTime() - start);
+            if (player != null && board.getPhase() != Phase.PLAYER_INTERACTION) {
+                fireStepExecuted(player, register);
+            }
         } while (board.getPhase() == Phase.ACTIVATION && !board.isStepMode());
     }
     /**
-     * Handles the conveyor move for players on conveyor belts.
-     * It determines the final destination of each player. If two or more players has the same destination then
-     * they will not be moved, otherwise the players on the spaces which conditions
-     * from <code>doAction()</code> in {@link ConveyorBelt} is satisfied, will be moved.
-     * If a player is moved outside of board <code>handleReboot</code> is called on that player
-     *
-     * @param players the list of players on the conveyor belts
+     * Handles the conveyor move for players on conveyor belts, using the {@link ConveyorGraph} of the board.
+     * It determines the destination of each player on a belt: the belt's successor, if the belt is not
+     * blocked by a wall and the successor is not occupied. If two or more players have the same destination,
+     * they will not be moved; otherwise, the players are moved to their destinations.
+     * If a player is moved outside of the board, <code>handleReboot</code> is called on that player; since
+     * there is enough room outside the board, several players may be moved off the board at the same time.
+     * <p>
+     * The destinations are kept in an array, which is reused, so that conveyor moves do not allocate.
      */
-    private void handleConveyorMove(List<Player> players) {
-
-        Map<Space, List<Player>> destinationMap = new HashMap<>();
-
-        //Determine all final destinations of players on conveyor belts
-        for (Player player : players) {
-            Space source = player.getSpace();
-            ConveyorBelt belt = source.getActionType(ConveyorBelt.class);
-
-            if (belt.doAction(this, source)) {
-                Space destination = belt.getTarget();
-                destinationMap.computeIfAbsent(destination, k -> new ArrayList<>()).add(player);
+    private void handleConveyorMove() {
+        ConveyorGraph graph = board.getConveyorGraph();
+        int players = board.getPlayersNumber();
+        if (conveyorDestinations.length < players) {
+            conveyorDestinations = new int[players];
+        }
+        int[] destinations = conveyorDestinations;
+
+        //Determine the destinations of all players on conveyor belts
+        for (int i = 0; i < players; i++) {
+            destinations[i] = NO_CONVEYOR_MOVE;
+            Space source = board.getPlayer(i).getSpace();
+            if (source == null) continue;
+
+            int belt = graph.beltAt(source);
+            if (belt >= 0 && !graph.isBlocked(belt)) {
+                int destination = graph.getSuccessor(belt);
+                if (destination == ConveyorGraph.OFF_BOARD || board.getSpaceByIndex(destination).getPlayer() == null) {
+                    destinations[i] = destination;
+                }
             }
         }
 
         //Only move players with unique destinations
-        destinationMap.entrySet().stream()
-                .filter(entry -> entry.getValue().size() == 1)
-                .forEach(entry -> {
-                    Player player = entry.getValue().get(0);
-                    Space destination = entry.getKey();
-                    Space source = player.getSpace();
-                    try {
-                        moveToSpace(player, player.getSpace(), destination, source.getActionType(ConveyorBelt.class).getHeading(),1);
-                    } catch (ImpossibleMoveException e) {
-                        System.out.println(e);
-                    }
-                });
+        for (int i = 0; i < players; i++) {
+            int destination = destinations[i];
+            if (destination == NO_CONVEYOR_MOVE) continue;
+
+            boolean unique = true;
+            if (destination != ConveyorGraph.OFF_BOARD) {
+                for (int j = 0; j < players && unique; j++) {
+                    unique = j == i || destinations[j] != destination;
+                }
+            }
+            if (unique) {
+                Player player = board.getPlayer(i);
+                Space source = player.getSpace();
+                Heading heading = graph.getHeading(graph.beltAt(source));
+                moveToSpace(player, source, board.getSpaceByIndex(destination), heading);
+            }
+        }
+    }
+
+    private void fireStepExecuted(@NotNull Player player, int register) {
+        for (GameListener listener : listeners) {
+            listener.stepExecuted(player, register);
+        }
     }
 
     /**
-     * Executes the field actions for each player's current field if possible.
-     * Should be changed in the future to allow for field actions which does not have players on them
+     * Executes the field actions of the board, in the fixed order defined by {@link ActivationOrder}:
+     * first the conveyor belts, then the gears and then the checkpoints. The actions are found in the
+     * {@link FieldActionIndex} of the board; so every action is activated, whether there is a player
+     * on its space or not. Conveyor belts are handled separately, since they move all players on them
+     * at the same time (see <code>handleConveyorMove</code>).
+     * If a player wins the game, no further actions are activated.
      */
     public void executeFieldActions() {
+        FieldActionIndex index = board.getFieldActionIndex();
 
-        List<Player> playersOnConveyors = new ArrayList<>();
-
-        for (Player player : board.getPlayers()) {
-            Space space = player.getSpace();
-
-            if (space != null) {
-                FieldAction action = space.getAction();
-                if (action != null) {
-
-                    //Special case for conveyors, must be handled separately
-                    if (action instanceof ConveyorBelt) {
-                        playersOnConveyors.add(player);
-                    } else action.doAction(this, space);
+        for (ActivationOrder order : ACTIVATION_ORDERS) {
+            if (winner != null) return;
 
+            if (order == ActivationOrder.CONVEYOR_BELTS) {
+                if (index.count(order) > 0) handleConveyorMove();
+            } else {
+                for (Space space : index.getSpaces(order)) {
+                    if (winner != null) return;
+                    space.getAction().doAction(this, space);
                 }
             }
-
         }
-        if (!playersOnConveyors.isEmpty()) handleConveyorMove(playersOnConveyors);
     }
     /**
      * If the current player is not rebooting, it executes the player's program card in the register corresponding to the step.
@@ -312,7 +484,7 @@ public class GameController {
                     Command command = card.command;
 
                     if (command.isInteractive()) {
-                        board.setPhase(Phase.PLAYER_INTERACTION);
+                        setPhase(Phase.PLAYER_INTERACTION);
                         return;
                     }
                     executeCommand(currentPlayer, command);
@@ -343,6 +515,8 @@ public class GameController {
         } else {
             int nextStep = board.getStep() + 1;
             executeFieldActions();
+            if (board.getPhase() == Phase.FINISHED) return;
+
             if (nextStep < Player.NO_REGISTERS) {
                 makeProgramFieldsVisible(nextStep);
                 board.setStep(nextStep);
@@ -390,11 +564,19 @@ public class GameController {
      * @param option the command to be executed
      */
     public void executeCommandOptionAndContinue(@NotNull Player player, Command option) {
+        if (winner != null) return;
 
         if (player.board == board && player == board.getCurrentPlayer()) {
-            board.setPhase(Phase.ACTIVATION);
-            executeCommand(player, option);
-            finishCommand();
+            int register = board.getStep();
+            Subject.beginBatch();
+            try {
+                setPhase(Phase.ACTIVATION);
+                executeCommand(player, option);
+                finishCommand();
+            } finally {
+                Subject.commitBatch();
+            }
+            fireStepExecuted(player, register);
 
             //Automatic execution continues after interactive map has been executed
             if (!board.isStepMode() && board.getPhase() == Phase.ACTIVATION) {
@@ -407,71 +589,84 @@ public class GameController {
      *
      * @param player the player to be moved
      * @param heading the direction of movement
+     * @return the outcome of the move
      */
-    public void moveForward(@NotNull Player player, Heading heading) {
-        if (player.board == board && !player.isRebooting()) {
+    public MoveResult moveForward(@NotNull Player player, Heading heading) {
+        if (winner == null && player.board == board && !player.isRebooting()) {
             Space source = player.getSpace();
             Space destination = board.getNeighbour(source, heading);
-
-            try {
-                int moveCount = 1; // Used to avoid possible cyclic infinite recursion
-                moveToSpace(player, source, destination, heading, moveCount);
-            } catch (ImpossibleMoveException e) {
-                System.out.println(e);
-            }
-
+            return moveToSpace(player, source, destination, heading);
         }
+        return MoveResult.BLOCKED;
     }
 
     /**
-     * Moves the player to the specified space in the given direction if the following conditions are <strong>not</strong> met:
-     *
-     * <ul>
-     *     <li> The target space is out of the boards boundaries - handle reboot on the player
-     *     <li> The source space has a wall in the same heading of this player's heading
-     *     <li> The target space has a wall in the opposite heading of this player's heading
-     * </ul>
-     * This method is recursively called, to allow for pushing mechanics if the target space has a player,
-     * with the new player, the target as the new source, the destination of the other player, but maintaining the same heading.
-     * Because of the recursive nature of this method, a moveCount is used to avoid possible infinite cyclic recursion.
-
-     * If the move is not possible, it throws an ImpossibleMoveException.
+     * Moves the player to the specified space in the given direction, pushing the robots in its way.
+     * The move is <strong>not</strong> possible, if there is a wall between any two neighbouring spaces
+     * of the push chain (the player and the robots lined up in front of it in the given heading).
+     * If the target space of the player or of the last robot of the chain is out of the board's boundaries,
+     * <code>handleReboot</code> is called on that robot.
+     * <p>
+     * The push chain is scanned once, iteratively, and all walls are checked before anything is moved; then
+     * the robots are moved starting with the last one of the chain, so that every robot moves into a free space.
+     * The robots of the chain are collected in an array which is reused.
      *
      * @param player the player to be moved
      * @param source the space from which the player is moving
      * @param destination the space to which the player is moving
      * @param heading the direction of movement
-     * @param moveCount the count of moves (used to avoid infinite recursion)
-     * @throws ImpossibleMoveException if the move is not possible
+     * @return the outcome of the move
      */
-    private void moveToSpace(@NotNull Player player, @NotNull Space source, Space destination, @NotNull Heading heading, int moveCount) throws ImpossibleMoveException {
+    private MoveResult moveToSpace(@NotNull Player player, @NotNull Space source, Space destination, @NotNull Heading heading) {
+        Space deadSpace = board.getDeadSpace();
         //Or a pit
-        if (destination == board.getDeadSpace()) {
+        if (destination == deadSpace) {
             handleReboot(player);
-            return;
+            return MoveResult.REBOOTED;
         }
 
-        if (source.getWalls().contains(heading) || destination.getWalls().contains(heading.opposing())) return;
-
-        Player other = destination.getPlayer();
-        if (other != null) {
+        Heading opposing = heading.opposing();
+        if (source.hasWall(heading) || destination.hasWall(opposing)) return MoveResult.BLOCKED;
 
-            Space otherDestination = board.getNeighbour(destination, heading);
-
-            if (moveCount <= board.getPlayersNumber()
-                    && !destination.getWalls().contains(heading)
-                    && !otherDestination.getWalls().contains(heading.opposing())) {
-
-                moveToSpace(other, destination, otherDestination, heading, moveCount + 1);
+        int players = board.getPlayersNumber();
+        if (pushChain.length < players) {
+            pushChain = new Player[players];
+        }
+        Player[] chain = pushChain;
+
+        int length = 0;
+        chain[length++] = player;
+        Space space = destination;
+        Player other = space.getPlayer();
+        while (other != null) {
+            // the chain can never contain more robots than there are players on the board
+            if (length >= players) return MoveResult.BLOCKED;
+
+            Space next = board.getNeighbour(space, heading);
+            if (space.hasWall(heading) || next.hasWall(opposing)) return MoveResult.BLOCKED;
+
+            chain[length++] = other;
+            if (next == deadSpace) break;
+            space = next;
+            other = space.getPlayer();
+        }
 
+        for (int i = length - 1; i > 0; i--) {
+            Player pushed = chain[i];
+            Space target = board.getNeighbour(pushed.getSpace(), heading);
+            chain[i] = null;
+            if (target == deadSpace) {
+                handleReboot(pushed);
             } else {
-                throw new ImpossibleMoveException(player, destination, heading);
+                pushed.setSpace(target);
             }
         }
-
+        chain[0] = null;
         player.setSpace(destination);
 
+        return MoveResult.MOVED;
     }
+
     /**
      * Handles the rebooting of a player. Sets the player's space to the dead space,
      * status to rebooting and clears the rest of the programming cards in their registers and all their command cards.
@@ -497,7 +692,9 @@ public class GameController {
             field.setVisible(true);
         }
 
-
+        for (GameListener listener : listeners) {
+            listener.playerRebooted(player);
+        }
     }
     /**
      * Moves the player two steps forward in the current heading.
@@ -514,7 +711,7 @@ public class GameController {
      * @param player the player to be turned
      */
     public void turnRight(@NotNull Player player) {
-        if (player != null && player.board == board) {
+        if (winner == null && player != null && player.board == board) {
             player.setHeading(player.getHeading().next());
         }
     }
@@ -524,7 +721,7 @@ public class GameController {
      * @param player the player to be turned
      */
     public void turnLeft(@NotNull Player player) {
-        if (player != null && player.board == board) {
+        if (winner == null && player != null && player.board == board) {
             player.setHeading(player.getHeading().prev());
         }
     }
@@ -538,30 +735,18 @@ public class GameController {
     public boolean moveCards(@NotNull CommandCardField source, @NotNull CommandCardField target) {
         CommandCard sourceCard = source.getCard();
         CommandCard targetCard = target.getCard();
-        if (sourceCard != null && targetCard == null) {
-            target.setCard(sourceCard);
-            source.setCard(null);
+        if (winner == null && sourceCard != null && targetCard == null) {
+            Subject.beginBatch();
+            try {
+                target.setCard(sourceCard);
+                source.setCard(null);
+            } finally {
+                Subject.commitBatch();
+            }
             return true;
         } else {
             return false;
         }
     }
 
-    /**
-     * A custom exception to indicate that a move is not possible.
-     */
-    class ImpossibleMoveException extends Exception {
-
-        private Player player;
-        private Space space;
-        private Heading heading;
-
-        public ImpossibleMoveException(Player player, Space space, Heading heading) {
-            super("Move impossible");
-            this.player = player;
-            this.space = space;
-            this.heading = heading;
-        }
-    }
-
 }
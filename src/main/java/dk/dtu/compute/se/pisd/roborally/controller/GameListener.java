@@ -0,0 +1,83 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Phase;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Listener for the events of a game run by a {@link GameController}. This is
+ * how the engine reports what happens in the game, without knowing anything
+ * about who is listening. The JavaFX application is just one such listener;
+ * simulations or servers may register their own listeners, or none at all.
+ * <p>
+ * All methods have an empty default implementation, so that a listener only
+ * needs to implement the events it is interested in. The methods are called
+ * on the thread that runs the game controller.
+ *
+ */
+public interface GameListener {
+
+    /**
+     * Called when the phase of the game changes.
+     *
+     * @param phase the new phase of the game
+     */
+    default void phaseChanged(@NotNull Phase phase) {}
+
+    /**
+     * Called when a player is moved off the board (or into a pit) and
+     * starts rebooting.
+     *
+     * @param player the player which is rebooting
+     */
+    default void playerRebooted(@NotNull Player player) {}
+
+    /**
+     * Called when a player reaches the next checkpoint in order.
+     *
+     * @param player the player which reached the checkpoint
+     * @param number the number of the checkpoint
+     */
+    default void checkpointReached(@NotNull Player player, int number) {}
+
+    /**
+     * Called after the register of a player has been executed in the
+     * activation phase (including the field actions, if this was the
+     * last player in this register). The changes of the step are all
+     * done when this method is called.
+     *
+     * @param player the player whose register was executed
+     * @param register the number of the register
+     */
+    default void stepExecuted(@NotNull Player player, int register) {}
+
+    /**
+     * Called when a player has won the game. After that, the game is in
+     * phase {@link Phase#FINISHED} and no more commands are executed.
+     *
+     * @param player the player which has won
+     */
+    default void playerWon(@NotNull Player player) {}
+
+}
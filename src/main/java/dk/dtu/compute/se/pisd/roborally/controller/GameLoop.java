@@ -0,0 +1,376 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Runs a game on its own thread, the game loop, so that the thread of the
+ * user interface is never blocked by the execution of the game.
+ * <p>
+ * The game loop owns a copy of the board, the engine board, and a game
+ * controller for it, the engine. The commands of the players are put into
+ * a queue and executed one after the other by the game loop. After each
+ * command and after each step of the activation phase, the game loop
+ * publishes an immutable snapshot ({@link BoardState}) of the engine board.
+ * The snapshot is rendered on the thread of the user interface, by restoring
+ * it to the board which is shown to the players, the display board. If the
+ * game loop publishes snapshots faster than they are rendered, only the
+ * most recent snapshot is rendered.
+ * <p>
+ * The views work with the controller returned by {@link #getController()}:
+ * it has the display board, and forwards the commands of the players to the
+ * game loop. The {@link GameListener}s registered with that controller are
+ * notified by the engine on the game loop thread.
+ *
+ */
+public class GameLoop {
+
+    private final Board board;
+
+    private final Board engineBoard;
+
+    private final GameController engine;
+
+    private final GameController controller;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Executor uiExecutor;
+
+    private final AtomicReference<Snapshot> published = new AtomicReference<>();
+
+    /**
+     * Creates a game loop for the game on the given board. The board is either
+     * initialised already (with its players), or it is initialised by the
+     * controller of the game loop (see {@link #getController()}); from now on,
+     * it is changed only by rendering the snapshots of the game loop.
+     *
+     * @param board the display board
+     * @param uiExecutor the executor which runs tasks on the thread of the user
+     *                   interface; in the JavaFX application this is
+     *                   <code>Platform::runLater</code>
+     */
+    public GameLoop(@NotNull Board board, @NotNull Executor uiExecutor) {
+        this.board = board;
+        this.uiExecutor = uiExecutor;
+        this.engineBoard = board.copy();
+        this.engine = new GameController(engineBoard);
+        this.controller = new LoopController(board);
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "game-loop");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        engine.addGameListener(new GameListener() {
+            @Override
+            public void stepExecuted(@NotNull Player player, int register) {
+                publish();
+            }
+        });
+    }
+
+    /**
+     * Returns the controller for the views of the display board, which
+     * forwards the commands of the players to this game loop.
+     *
+     * @return the controller for the display board
+     */
+    public GameController getController() {
+        return controller;
+    }
+
+    /**
+     * Puts a command into the queue of the game loop. The command is executed
+     * on the game loop thread with the engine (the game controller of the engine
+     * board); afterwards, a snapshot of the engine board is published.
+     *
+     * @param command the command
+     * @return a future, which is done when the command was executed
+     */
+    public Future<?> submit(@NotNull Consumer<GameController> command) {
+        return executor.submit(() -> {
+            try {
+                command.accept(engine);
+            } finally {
+                publish();
+            }
+        });
+    }
+
+    /**
+     * Stops the game loop; commands in the queue are not executed anymore.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Publishes a snapshot of the engine board; called on the game loop thread only.
+     */
+    private void publish() {
+        Snapshot snapshot = new Snapshot(BoardState.capture(engineBoard), engineBoard.getCardsDealt());
+        if (published.getAndSet(snapshot) == null) {
+            uiExecutor.execute(this::render);
+        }
+    }
+
+    /**
+     * Renders the most recent snapshot to the display board; called on the thread
+     * of the user interface only.
+     */
+    private void render() {
+        Snapshot snapshot = published.getAndSet(null);
+        if (snapshot != null) {
+            Subject.beginBatch();
+            try {
+                snapshot.state.restore(board);
+                // so that a saved display board continues dealing where the engine is
+                board.setCardsDealt(snapshot.cardsDealt);
+            } finally {
+                Subject.commitBatch();
+            }
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final BoardState state;
+
+        private final long cardsDealt;
+
+        private Snapshot(BoardState state, long cardsDealt) {
+            this.state = state;
+            this.cardsDealt = cardsDealt;
+        }
+
+    }
+
+    private static CommandCardField engineField(Board from, Board to, CommandCardField field) {
+        Player owner = field.player;
+        if (owner == null || owner.board != from) {
+            return null;
+        }
+        Player player = to.getPlayer(from.getPlayerNumber(owner));
+        for (int i = 0; i < Player.NO_REGISTERS; i++) {
+            if (owner.getProgramField(i) == field) return player.getProgramField(i);
+        }
+        for (int i = 0; i < Player.NO_CARDS; i++) {
+            if (owner.getCardField(i) == field) return player.getCardField(i);
+        }
+        return null;
+    }
+
+    /**
+     * The controller of the display board. All commands which change the game
+     * are forwarded to the engine, translating the players, spaces and fields of
+     * the display board to the ones of the engine board; so the display board is
+     * changed by rendering the snapshots of the engine only (with the exceptions
+     * documented at {@link #initialize(int, List)} and {@link #moveCards}).
+     */
+    private class LoopController extends GameController {
+
+        private LoopController(@NotNull Board board) {
+            super(board);
+        }
+
+        private Player enginePlayer(Player player) {
+            if (player == null || player.board != board) {
+                return null;
+            }
+            return engineBoard.getPlayer(board.getPlayerNumber(player));
+        }
+
+        /**
+         * Initialises the game of a game loop which was created for a board
+         * without players. Since the snapshots of the engine do not add players,
+         * the players are added to the display board right away, the same way as
+         * the engine adds them to the engine board; all the rest (placing the
+         * robots and dealing the cards) is done by the engine.
+         */
+        @Override
+        public void initialize(int playerCount, List<String> colors) {
+            List<String> playerColors = List.copyOf(colors.subList(0, playerCount));
+            if (board.getSpawnSpaces().isEmpty()) board.setSpawnSpacesDefault(playerCount);
+            for (int i = 0; i < playerCount; i++) {
+                Player player = new Player(board, playerColors.get(i), "Player " + (i + 1));
+                player.setSpawnSpace(board.getSpawnSpaces().get(i));
+                board.addPlayer(player);
+            }
+            submit(engine -> engine.initialize(playerCount, playerColors));
+        }
+
+        @Override
+        public void addGameListener(@NotNull GameListener listener) {
+            engine.addGameListener(listener);
+        }
+
+        @Override
+        public void removeGameListener(@NotNull GameListener listener) {
+            engine.removeGameListener(listener);
+        }
+
+        @Override
+        public Player getWinner() {
+            Player winner = engine.getWinner();
+            return winner == null ? null : board.getPlayer(engineBoard.getPlayerNumber(winner));
+        }
+
+        @Override
+        public StepLatencies getStepLatencies() {
+            return engine.getStepLatencies();
+        }
+
+        @Override
+        public int getQueuedCommands() {
+            return executor.getQueue().size() + executor.getActiveCount();
+        }
+
+        @Override
+        public void moveCurrentPlayerToSpace(@NotNull Space space) {
+            if (space != null && space.board == board) {
+                int x = space.x;
+                int y = space.y;
+                submit(engine -> engine.moveCurrentPlayerToSpace(engineBoard.getSpace(x, y)));
+            }
+        }
+
+        @Override
+        public void updateCheckpoint(@NotNull Player player, Space space, int number) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer != null && space != null && space.board == board) {
+                int x = space.x;
+                int y = space.y;
+                submit(engine -> engine.updateCheckpoint(enginePlayer, engineBoard.getSpace(x, y), number));
+            }
+        }
+
+        @Override
+        public void handleWin(@NotNull Player player) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer != null) {
+                submit(engine -> engine.handleWin(enginePlayer));
+            }
+        }
+
+        @Override
+        public void startProgrammingPhase() {
+            submit(GameController::startProgrammingPhase);
+        }
+
+        @Override
+        public void finishProgrammingPhase() {
+            submit(GameController::finishProgrammingPhase);
+        }
+
+        @Override
+        public void executePrograms() {
+            submit(GameController::executePrograms);
+        }
+
+        @Override
+        public void executeStep() {
+            submit(GameController::executeStep);
+        }
+
+        @Override
+        public void executeFieldActions() {
+            submit(GameController::executeFieldActions);
+        }
+
+        @Override
+        public void executeCommandOptionAndContinue(@NotNull Player player, Command option) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer != null) {
+                submit(engine -> engine.executeCommandOptionAndContinue(enginePlayer, option));
+            }
+        }
+
+        /**
+         * Queues the move in the game loop. The outcome of the move is not known
+         * before the game loop has executed it, so {@link MoveResult#QUEUED} is
+         * returned.
+         */
+        @Override
+        public MoveResult moveForward(@NotNull Player player, Heading heading) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer == null) {
+                return MoveResult.BLOCKED;
+            }
+            submit(engine -> engine.moveForward(enginePlayer, heading));
+            return MoveResult.QUEUED;
+        }
+
+        @Override
+        public void fastForward(@NotNull Player player) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer != null) {
+                submit(engine -> engine.fastForward(enginePlayer));
+            }
+        }
+
+        @Override
+        public void turnRight(@NotNull Player player) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer != null) {
+                submit(engine -> engine.turnRight(enginePlayer));
+            }
+        }
+
+        @Override
+        public void turnLeft(@NotNull Player player) {
+            Player enginePlayer = enginePlayer(player);
+            if (enginePlayer != null) {
+                submit(engine -> engine.turnLeft(enginePlayer));
+            }
+        }
+
+        /**
+         * Moves the card on the display board right away, so that the views show
+         * the move without waiting for the game loop, and queues the same move in
+         * the game loop. The engine has the same cards as the display board in the
+         * programming phase, in which cards are moved; should it decide otherwise,
+         * its next snapshot puts the cards back. The thread of the user interface
+         * never waits for the game loop here.
+         */
+        @Override
+        public boolean moveCards(@NotNull CommandCardField source, @NotNull CommandCardField target) {
+            CommandCardField engineSource = engineField(board, engineBoard, source);
+            CommandCardField engineTarget = engineField(board, engineBoard, target);
+            if (engineSource == null || engineTarget == null || !super.moveCards(source, target)) {
+                return false;
+            }
+            submit(engine -> engine.moveCards(engineSource, engineTarget));
+            return true;
+        }
+
+    }
+
+}
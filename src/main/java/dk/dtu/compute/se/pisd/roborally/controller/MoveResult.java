@@ -0,0 +1,56 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+/**
+ * The outcome of moving a robot one space, possibly pushing other robots.
+ * A move which is not possible is a normal outcome of a game, which is why
+ * it is reported by a result code and not by an exception.
+ *
+ */
+public enum MoveResult {
+
+    /**
+     * The robot was moved; robots in its way were pushed along, and robots
+     * pushed off the board were rebooted.
+     */
+    MOVED,
+
+    /**
+     * The robot itself was moved off the board (or into a pit) and is
+     * rebooting now.
+     */
+    REBOOTED,
+
+    /**
+     * The move was blocked by a wall somewhere along the push chain, or the
+     * robot is not on the board; nothing was moved.
+     */
+    BLOCKED,
+
+    /**
+     * The move was handed to a {@link GameLoop}, which executes it later; its
+     * outcome is not known yet.
+     */
+    QUEUED
+
+}
@@ -0,0 +1,68 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardState;
+import dk.dtu.compute.se.pisd.roborally.model.GameRecording;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Records a game, while it is played, into a {@link GameRecording}: the state
+ * of the board when the recorder is added, and the state after every step.
+ * The recorder must be added as a {@link GameListener} to the controller of
+ * the board.
+ *
+ */
+public class ReplayRecorder implements GameListener {
+
+    private final Board board;
+
+    private final GameRecording recording = new GameRecording();
+
+    private final BoardState state;
+
+    /**
+     * Creates a recorder for the game on the given board, and records the
+     * current state of the board as the first frame.
+     *
+     * @param board the board of the game
+     */
+    public ReplayRecorder(@NotNull Board board) {
+        this.board = board;
+        this.state = BoardState.capture(board);
+        recording.append(state);
+    }
+
+    public GameRecording getRecording() {
+        return recording;
+    }
+
+    @Override
+    public void stepExecuted(@NotNull Player player, int register) {
+        // the state is reused for capturing, the recording keeps its own copy
+        state.update(board);
+        recording.append(state);
+    }
+
+}
@@ -0,0 +1,86 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records the latencies of the most recent register steps of a game in a ring
+ * buffer of fixed size. Recording a latency is cheap and does not allocate; it
+ * is done by the thread which runs the game. The percentiles can be computed
+ * by any other thread, for example by a view showing the performance of the
+ * game.
+ *
+ */
+public final class StepLatencies {
+
+    /**
+     * The number of recent steps which are kept.
+     */
+    public static final int CAPACITY = 1024;
+
+    private final AtomicLongArray nanos = new AtomicLongArray(CAPACITY);
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    /**
+     * Records the latency of a step.
+     *
+     * @param latency the latency of the step in nanoseconds
+     */
+    public void record(long latency) {
+        int i = count.getAndIncrement();
+        nanos.set(Math.floorMod(i, CAPACITY), latency);
+    }
+
+    /**
+     * Returns the total number of steps recorded.
+     *
+     * @return the number of recorded steps
+     */
+    public int getCount() {
+        return count.get();
+    }
+
+    /**
+     * Returns the given percentile of the latencies of the recent steps.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency in nanoseconds, or 0 if no step was recorded
+     */
+    public long getPercentile(double percentile) {
+        int size = Math.min(count.get(), CAPACITY);
+        if (size == 0) {
+            return 0;
+        }
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = nanos.get(i);
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * size) - 1;
+        return sorted[Math.max(0, Math.min(size - 1, index))];
+    }
+
+}
@@ -0,0 +1,214 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.IOUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Provides the connections to the database, from a small pool of connections
+ * which are reused. When the connector is created, the schema of the database
+ * (see <code>schemas/createschema.sql</code>) is created if it does not exist.
+ * A connection is taken from the pool by {@link #getConnection()}, and must be
+ * given back by {@link #releaseConnection(Connection)} after use.
+ *
+ */
+public class Connector {
+
+    private static final String HOST     = "localhost";
+    private static final int    PORT     = 3306;
+    private static final String DATABASE = "pisd";
+    private static final String USERNAME = "user";
+    private static final String PASSWORD = "password";
+
+    // With rewriteBatchedStatements, the MySQL driver sends a batch of
+    // statements to the server in one round trip
+    private static final String URL = "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE +
+            "?serverTimezone=UTC&rewriteBatchedStatements=true";
+
+    private static final String SCHEMA = "schemas/createschema.sql";
+
+    private static final String DELIMITER = ";;";
+
+    private static final long WAIT = 100;
+
+    /**
+     * The default number of connections in the pool.
+     */
+    public static final int POOL_SIZE = 4;
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private final BlockingQueue<Connection> idle;
+
+    private final int poolSize;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * Creates a connector to the MySQL database of the game.
+     *
+     * @throws SQLException if the database could not be accessed
+     */
+    public Connector() throws SQLException {
+        this(URL, USERNAME, PASSWORD, POOL_SIZE);
+    }
+
+    /**
+     * Creates a connector to the database with the given URL.
+     *
+     * @param url the JDBC URL of the database
+     * @param username the name of the user
+     * @param password the password of the user
+     * @param poolSize the maximum number of connections
+     * @throws SQLException if the database could not be accessed
+     */
+    public Connector(@NotNull String url, String username, String password, int poolSize) throws SQLException {
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("The pool must have at least one connection");
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.poolSize = poolSize;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+
+        Connection connection = getConnection();
+        try {
+            createDatabaseSchema(connection);
+        } finally {
+            releaseConnection(connection);
+        }
+    }
+
+    private void createDatabaseSchema(Connection connection) throws SQLException {
+        String[] statements = IOUtil.readResource(SCHEMA).split(DELIMITER);
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : statements) {
+                if (!sql.isBlank()) {
+                    statement.executeUpdate(sql);
+                }
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    /**
+     * Returns a connection from the pool. If all connections are in use and
+     * the pool is full, this method waits for a connection to be released.
+     *
+     * @return the connection
+     * @throws SQLException if a new connection could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        try {
+            while (true) {
+                Connection connection = idle.poll();
+                if (connection != null) {
+                    return connection;
+                }
+                int count = connections.get();
+                if (count < poolSize) {
+                    if (connections.compareAndSet(count, count + 1)) {
+                        try {
+                            return DriverManager.getConnection(url, username, password);
+                        } catch (SQLException e) {
+                            connections.decrementAndGet();
+                            throw e;
+                        }
+                    }
+                } else {
+                    // the wait is limited, since a connection, which is released
+                    // broken, is not given back to the pool (but can be opened anew)
+                    connection = idle.poll(WAIT, TimeUnit.MILLISECONDS);
+                    if (connection != null) {
+                        return connection;
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    /**
+     * Gives a connection, which was obtained from {@link #getConnection()},
+     * back to the pool.
+     *
+     * @param connection the connection
+     */
+    public void releaseConnection(@NotNull Connection connection) {
+        try {
+            if (!connection.isClosed()) {
+                if (!connection.getAutoCommit()) {
+                    connection.rollback();
+                    connection.setAutoCommit(true);
+                }
+                if (idle.offer(connection)) {
+                    return;
+                }
+                connection.close();
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+            }
+        }
+        connections.decrementAndGet();
+    }
+
+    /**
+     * Closes the connections in the pool, which are not in use.
+     */
+    public void close() {
+        Connection connection;
+        while ((connection = idle.poll()) != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                System.out.println(e);
+            }
+            connections.decrementAndGet();
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+
+import java.util.List;
+
+/**
+ * Persists games in a database and loads them again.
+ *
+ */
+public interface IRepository {
+
+    /**
+     * Stores the game on the given board as a new game in the database, and
+     * sets the id of the game on the board.
+     *
+     * @param game the board of the game
+     * @param name the name of the game
+     * @return true if the game was stored
+     */
+    boolean createGameInDB(Board game, String name);
+
+    /**
+     * Updates the game on the given board, which was stored before, in the
+     * database.
+     *
+     * @param game the board of the game
+     * @return true if the game was updated
+     */
+    boolean updateGameInDB(Board game);
+
+    /**
+     * Loads the game with the given id from the database.
+     *
+     * @param id the id of the game
+     * @return the board of the game, or null if the game could not be loaded
+     */
+    Board loadGameFromDB(int id);
+
+    /**
+     * Returns the games stored in the database.
+     *
+     * @return the games in the database
+     */
+    List<GameInDB> getGames();
+
+}
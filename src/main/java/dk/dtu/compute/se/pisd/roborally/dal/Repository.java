@@ -0,0 +1,422 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores games in the database with the schema <code>schemas/createschema.sql</code>:
+ * the game itself, its players and the fields (registers and hand cards) of the
+ * players. The layout of the board is not stored, only the name (map) of the
+ * board; it is loaded from the boards (see {@link LoadBoard#loadBoard(String)}).
+ * <p>
+ * All rows of a game are written in one transaction, and the rows of the players
+ * and of their fields are written as batches of prepared statements, so that the
+ * players of a game are written in one round trip to the database (if the driver
+ * supports that, see {@link Connector}).
+ *
+ */
+public class Repository implements IRepository {
+
+    private static final String GAME_ID = "gameID";
+    private static final String GAME_NAME = "name";
+    private static final String GAME_MAP = "map";
+    private static final String GAME_SEED = "seed";
+    private static final String GAME_CARDS_DEALT = "cardsDealt";
+    private static final String GAME_PHASE = "phase";
+    private static final String GAME_STEP = "step";
+    private static final String GAME_STEP_MODE = "stepMode";
+    private static final String GAME_CURRENT_PLAYER = "currentPlayer";
+
+    private static final String PLAYER_ID = "playerID";
+    private static final String PLAYER_NAME = "name";
+    private static final String PLAYER_COLOUR = "colour";
+    private static final String PLAYER_POSITION_X = "positionX";
+    private static final String PLAYER_POSITION_Y = "positionY";
+    private static final String PLAYER_HEADING = "heading";
+    private static final String PLAYER_SPAWN_X = "spawnX";
+    private static final String PLAYER_SPAWN_Y = "spawnY";
+    private static final String PLAYER_CHECKPOINT = "checkpoint";
+    private static final String PLAYER_REBOOTING = "rebooting";
+
+    private static final String FIELD_TYPE = "type";
+    private static final String FIELD_POSITION = "position";
+    private static final String FIELD_COMMAND = "command";
+    private static final String FIELD_VISIBLE = "visible";
+
+    private static final int FIELD_TYPE_PROGRAM = 0;
+    private static final int FIELD_TYPE_HAND = 1;
+
+    private static final String SQL_INSERT_GAME =
+            "INSERT INTO Game(name, map, seed, cardsDealt, phase, step, stepMode, currentPlayer) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_UPDATE_GAME =
+            "UPDATE Game SET seed = ?, cardsDealt = ?, phase = ?, step = ?, stepMode = ?, currentPlayer = ? " +
+            "WHERE gameID = ?";
+
+    private static final String SQL_INSERT_PLAYER =
+            "INSERT INTO Player(positionX, positionY, heading, spawnX, spawnY, checkpoint, rebooting, " +
+            "name, colour, gameID, playerID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_UPDATE_PLAYER =
+            "UPDATE Player SET positionX = ?, positionY = ?, heading = ?, spawnX = ?, spawnY = ?, " +
+            "checkpoint = ?, rebooting = ? WHERE gameID = ? AND playerID = ?";
+
+    private static final String SQL_INSERT_FIELD =
+            "INSERT INTO CardField(command, visible, gameID, playerID, type, position) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String SQL_UPDATE_FIELD =
+            "UPDATE CardField SET command = ?, visible = ? " +
+            "WHERE gameID = ? AND playerID = ? AND type = ? AND position = ?";
+
+    private static final String SQL_SELECT_GAME = "SELECT * FROM Game WHERE gameID = ?";
+
+    private static final String SQL_SELECT_PLAYERS = "SELECT * FROM Player WHERE gameID = ? ORDER BY playerID ASC";
+
+    private static final String SQL_SELECT_FIELDS = "SELECT * FROM CardField WHERE gameID = ?";
+
+    private static final String SQL_SELECT_GAMES = "SELECT gameID, name FROM Game ORDER BY gameID ASC";
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Heading[] HEADINGS = Heading.values();
+    private static final Command[] COMMANDS = Command.values();
+
+    private final Connector connector;
+
+    /**
+     * Creates a repository storing the games in the database of the given connector.
+     *
+     * @param connector the connector to the database
+     */
+    public Repository(@NotNull Connector connector) {
+        this.connector = connector;
+    }
+
+    @Override
+    public boolean createGameInDB(@NotNull Board game, String name) {
+        if (game.getGameId() != null) {
+            System.err.println("Game cannot be created in DB, since it has a game id already!");
+            return false;
+        }
+        Connection connection = null;
+        try {
+            connection = connector.getConnection();
+            connection.setAutoCommit(false);
+
+            int id;
+            try (PreparedStatement ps = connection.prepareStatement(SQL_INSERT_GAME, Statement.RETURN_GENERATED_KEYS)) {
+                ps.setString(1, name);
+                ps.setString(2, game.getMap());
+                setGame(ps, 3, game);
+                ps.executeUpdate();
+                try (ResultSet generatedKeys = ps.getGeneratedKeys()) {
+                    if (!generatedKeys.next()) {
+                        throw new SQLException("No id generated for the game");
+                    }
+                    id = generatedKeys.getInt(1);
+                }
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(SQL_INSERT_PLAYER)) {
+                for (int i = 0; i < game.getPlayersNumber(); i++) {
+                    Player player = game.getPlayer(i);
+                    int column = setPlayer(ps, player);
+                    ps.setString(column++, player.getName());
+                    ps.setString(column++, player.getColor());
+                    ps.setInt(column++, id);
+                    ps.setInt(column, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(SQL_INSERT_FIELD)) {
+                addFields(ps, id, game);
+                ps.executeBatch();
+            }
+
+            connection.commit();
+            game.setGameId(id);
+            return true;
+        } catch (SQLException e) {
+            System.out.println(e);
+            return false;
+        } finally {
+            if (connection != null) {
+                connector.releaseConnection(connection);
+            }
+        }
+    }
+
+    @Override
+    public boolean updateGameInDB(@NotNull Board game) {
+        Integer id = game.getGameId();
+        if (id == null) {
+            System.err.println("Game cannot be updated in DB, since it does not have a game id!");
+            return false;
+        }
+        Connection connection = null;
+        try {
+            connection = connector.getConnection();
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement ps = connection.prepareStatement(SQL_UPDATE_GAME)) {
+                int column = setGame(ps, 1, game);
+                ps.setInt(column, id);
+                if (ps.executeUpdate() != 1) {
+                    throw new SQLException("Game " + id + " is not in the database");
+                }
+            }
+            // all players in one batch, and all their fields in another one
+            try (PreparedStatement ps = connection.prepareStatement(SQL_UPDATE_PLAYER)) {
+                for (int i = 0; i < game.getPlayersNumber(); i++) {
+                    int column = setPlayer(ps, game.getPlayer(i));
+                    ps.setInt(column++, id);
+                    ps.setInt(column, i);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = connection.prepareStatement(SQL_UPDATE_FIELD)) {
+                addFields(ps, id, game);
+                ps.executeBatch();
+            }
+
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            System.out.println(e);
+            return false;
+        } finally {
+            if (connection != null) {
+                connector.releaseConnection(connection);
+            }
+        }
+    }
+
+    @Override
+    public Board loadGameFromDB(int id) {
+        Connection connection = null;
+        try {
+            connection = connector.getConnection();
+            Board game;
+            int currentPlayer;
+            Phase phase;
+            int step;
+            boolean stepMode;
+
+            try (PreparedStatement ps = connection.prepareStatement(SQL_SELECT_GAME)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    game = LoadBoard.loadBoard(rs.getString(GAME_MAP));
+                    if (game == null) {
+                        return null;
+                    }
+                    game.setSeed(rs.getLong(GAME_SEED));
+                    game.setCardsDealt(rs.getLong(GAME_CARDS_DEALT));
+                    phase = PHASES[checkIndex(rs.getInt(GAME_PHASE), PHASES.length)];
+                    step = rs.getInt(GAME_STEP);
+                    stepMode = rs.getBoolean(GAME_STEP_MODE);
+                    currentPlayer = rs.getInt(GAME_CURRENT_PLAYER);
+                    if (rs.wasNull()) {
+                        currentPlayer = -1;
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(SQL_SELECT_PLAYERS)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Player player = new Player(game, rs.getString(PLAYER_COLOUR), rs.getString(PLAYER_NAME));
+                        player.setSpace(getSpace(game, rs, PLAYER_POSITION_X, PLAYER_POSITION_Y));
+                        player.setSpawnSpace(getSpace(game, rs, PLAYER_SPAWN_X, PLAYER_SPAWN_Y));
+                        player.setHeading(HEADINGS[checkIndex(rs.getInt(PLAYER_HEADING), HEADINGS.length)]);
+                        player.setCurrentCheckpoint(rs.getInt(PLAYER_CHECKPOINT));
+                        player.setRebooting(rs.getBoolean(PLAYER_REBOOTING));
+                        game.addPlayer(player);
+                    }
+                }
+            }
+
+            try (PreparedStatement ps = connection.prepareStatement(SQL_SELECT_FIELDS)) {
+                ps.setInt(1, id);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        Player player = game.getPlayer(rs.getInt(PLAYER_ID));
+                        if (player == null) {
+                            continue;
+                        }
+                        int position = rs.getInt(FIELD_POSITION);
+                        CommandCardField field = rs.getInt(FIELD_TYPE) == FIELD_TYPE_PROGRAM ?
+                                player.getProgramField(checkIndex(position, Player.NO_REGISTERS)) :
+                                player.getCardField(checkIndex(position, Player.NO_CARDS));
+                        int command = rs.getInt(FIELD_COMMAND);
+                        field.setCard(rs.wasNull() ? null :
+                                new CommandCard(COMMANDS[checkIndex(command, COMMANDS.length)]));
+                        field.setVisible(rs.getBoolean(FIELD_VISIBLE));
+                    }
+                }
+            }
+
+            if (currentPlayer >= 0 && currentPlayer < game.getPlayersNumber()) {
+                game.setCurrentPlayer(game.getPlayer(currentPlayer));
+            }
+            game.setPhase(phase);
+            game.setStep(step);
+            game.setStepMode(stepMode);
+            game.setGameId(id);
+            return game;
+        } catch (SQLException e) {
+            System.out.println(e);
+            return null;
+        } finally {
+            if (connection != null) {
+                connector.releaseConnection(connection);
+            }
+        }
+    }
+
+    @Override
+    public List<GameInDB> getGames() {
+        List<GameInDB> result = new ArrayList<>();
+        Connection connection = null;
+        try {
+            connection = connector.getConnection();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(SQL_SELECT_GAMES)) {
+                while (rs.next()) {
+                    result.add(new GameInDB(rs.getInt(GAME_ID), rs.getString(GAME_NAME)));
+                }
+            }
+        } catch (SQLException e) {
+            System.out.println(e);
+        } finally {
+            if (connection != null) {
+                connector.releaseConnection(connection);
+            }
+        }
+        return result;
+    }
+
+    private int setGame(PreparedStatement ps, int column, Board game) throws SQLException {
+        ps.setLong(column++, game.getSeed());
+        ps.setLong(column++, game.getCardsDealt());
+        ps.setInt(column++, game.getPhase().ordinal());
+        ps.setInt(column++, game.getStep());
+        ps.setBoolean(column++, game.isStepMode());
+        Player current = game.getCurrentPlayer();
+        if (current == null) {
+            ps.setNull(column++, Types.TINYINT);
+        } else {
+            ps.setInt(column++, game.getPlayerNumber(current));
+        }
+        return column;
+    }
+
+    private int setPlayer(PreparedStatement ps, Player player) throws SQLException {
+        int column = 1;
+        column = setSpace(ps, column, player.getSpace());
+        ps.setInt(column++, player.getHeading().ordinal());
+        column = setSpace(ps, column, player.getSpawnSpace());
+        ps.setInt(column++, player.getCurrentCheckpoint());
+        ps.setBoolean(column++, player.isRebooting());
+        return column;
+    }
+
+    private int setSpace(PreparedStatement ps, int column, Space space) throws SQLException {
+        // the dead space has the coordinates -1, -1
+        if (space == null) {
+            ps.setNull(column++, Types.INTEGER);
+            ps.setNull(column++, Types.INTEGER);
+        } else {
+            ps.setInt(column++, space.x);
+            ps.setInt(column++, space.y);
+        }
+        return column;
+    }
+
+    /**
+     * Checks that a number read from the database is a valid index (or ordinal)
+     * for the given number of elements.
+     *
+     * @return the index
+     * @throws SQLException if the index is out of range, which means that the
+     *                      game in the database is corrupt
+     */
+    private static int checkIndex(int index, int length) throws SQLException {
+        if (index < 0 || index >= length) {
+            throw new SQLException("Corrupt saved game");
+        }
+        return index;
+    }
+
+    private Space getSpace(Board game, ResultSet rs, String xColumn, String yColumn) throws SQLException {
+        int x = rs.getInt(xColumn);
+        if (rs.wasNull()) {
+            return null;
+        }
+        int y = rs.getInt(yColumn);
+        if (x < 0 || y < 0) {
+            return game.getDeadSpace();
+        }
+        return game.getSpace(x, y);
+    }
+
+    private void addFields(PreparedStatement ps, int id, Board game) throws SQLException {
+        for (int i = 0; i < game.getPlayersNumber(); i++) {
+            Player player = game.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                addField(ps, id, i, FIELD_TYPE_PROGRAM, j, player.getProgramField(j));
+            }
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                addField(ps, id, i, FIELD_TYPE_HAND, j, player.getCardField(j));
+            }
+        }
+    }
+
+    private void addField(PreparedStatement ps, int id, int playerId, int type, int position,
+                          CommandCardField field) throws SQLException {
+        CommandCard card = field.getCard();
+        if (card == null) {
+            ps.setNull(1, Types.TINYINT);
+        } else {
+            ps.setInt(1, card.command.ordinal());
+        }
+        ps.setBoolean(2, field.isVisible());
+        ps.setInt(3, id);
+        ps.setInt(4, playerId);
+        ps.setInt(5, type);
+        ps.setInt(6, position);
+        ps.addBatch();
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A compact binary format for saved games, as an alternative to the JSON
+ * format. Instead of objects with named fields, the format consists of
+ * numbers only: enums are written as their ordinals, spaces as their index
+ * on the board, and all numbers except the seed as variable length integers
+ * (varints, 7 bits per byte). Like in the JSON format, the layout of the
+ * board is not saved, only the name of the board (map); the layout is loaded
+ * from the boards folder.
+ * <p>
+ * The format starts with the bytes "RRB" and a version number, so that
+ * later versions of the format can still read older saves. Version 1 is:
+ * <pre>
+ *  "RRB" version map seed cardsDealt phase stepMode step current players
+ *  for each player:
+ *     name color space spawnSpace status checkpoint field*
+ * </pre>
+ * where strings are a varint length followed by the UTF-8 bytes (length 0
+ * for null, and the length + 1 otherwise), the seed is 8 bytes, a space is
+ * 0 for none, 1 for the dead space and its index + 2 otherwise, <i>current</i>
+ * is the number of the current player + 1, <i>status</i> is the ordinal of the
+ * heading + 4 if the player is rebooting, and each of the program fields and
+ * card fields is one byte: the ordinal of the command + 1 (0 for no card),
+ * + 128 if the field is visible.
+ *
+ */
+public class BinarySaveFormat {
+
+    /**
+     * The extension of files in this format.
+     */
+    public static final String EXTENSION = "rrb";
+
+    /**
+     * The version of the format, which is written.
+     */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = {'R', 'R', 'B'};
+
+    private static final String CORRUPT = "Corrupt saved game";
+
+    // the maximal length of a string in bytes, so that a corrupt length does
+    // not make reading allocate huge arrays
+    private static final int MAX_STRING = 1 << 16;
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Heading[] HEADINGS = Heading.values();
+    private static final Command[] COMMANDS = Command.values();
+
+    private BinarySaveFormat() {
+    }
+
+    /**
+     * Writes the game on the given board to the stream.
+     *
+     * @param board the board of the game
+     * @param out the stream; it is not closed
+     * @throws IOException if the stream could not be written
+     */
+    public static void write(@NotNull Board board, @NotNull OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.write(MAGIC);
+        writeVarint(data, VERSION);
+
+        writeString(data, board.getMap());
+        data.writeLong(board.getSeed());
+        writeVarint(data, board.getCardsDealt());
+        writeVarint(data, board.getPhase().ordinal());
+        data.writeBoolean(board.isStepMode());
+        writeVarint(data, board.getStep());
+        Player current = board.getCurrentPlayer();
+        writeVarint(data, current == null ? 0 : board.getPlayerNumber(current) + 1);
+
+        int players = board.getPlayersNumber();
+        writeVarint(data, players);
+        for (int i = 0; i < players; i++) {
+            Player player = board.getPlayer(i);
+            writeString(data, player.getName());
+            writeString(data, player.getColor());
+            writeVarint(data, encodeSpace(board, player.getSpace()));
+            writeVarint(data, encodeSpace(board, player.getSpawnSpace()));
+            writeVarint(data, player.getHeading().ordinal() | (player.isRebooting() ? 4 : 0));
+            writeVarint(data, player.getCurrentCheckpoint());
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                data.writeByte(encodeField(player.getProgramField(j)));
+            }
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                data.writeByte(encodeField(player.getCardField(j)));
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads a game from the stream; the layout of the board is loaded from
+     * the boards folder (see {@link LoadBoard#loadBoard(String)}).
+     *
+     * @param in the stream; it is not closed
+     * @return the board of the game
+     * @throws IOException if the stream could not be read, is not a saved game
+     *                     of a version, which is known, or is corrupt
+     */
+    public static Board read(@NotNull InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (magic[0] != MAGIC[0] || magic[1] != MAGIC[1] || magic[2] != MAGIC[2]) {
+            throw new IOException("Not a binary saved game");
+        }
+        int version = (int) readVarint(data);
+        if (version < 1 || version > VERSION) {
+            throw new IOException("Unknown version " + version + " of saved game");
+        }
+
+        Board board = LoadBoard.loadBoard(readString(data));
+        if (board == null) {
+            throw new IOException("Board of saved game not found");
+        }
+        board.setSeed(data.readLong());
+        board.setCardsDealt(readVarint(data));
+        Phase phase = PHASES[checkIndex(readVarint(data), PHASES.length)];
+        boolean stepMode = data.readBoolean();
+        int step = (int) readVarint(data);
+        long current = readVarint(data) - 1;
+
+        int players = checkIndex(readVarint(data), board.width * board.height + 1);
+        for (int i = 0; i < players; i++) {
+            String name = readString(data);
+            String color = readString(data);
+            Player player = new Player(board, color, name);
+            player.setSpace(decodeSpace(board, readVarint(data)));
+            player.setSpawnSpace(decodeSpace(board, readVarint(data)));
+            int status = checkIndex(readVarint(data), 2 * HEADINGS.length);
+            player.setHeading(HEADINGS[status & 3]);
+            player.setRebooting((status & 4) != 0);
+            player.setCurrentCheckpoint((int) readVarint(data));
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                decodeField(player.getProgramField(j), data.readUnsignedByte());
+            }
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                decodeField(player.getCardField(j), data.readUnsignedByte());
+            }
+            board.addPlayer(player);
+        }
+
+        if (current >= 0) {
+            board.setCurrentPlayer(board.getPlayer(checkIndex(current, players)));
+        }
+        board.setPhase(phase);
+        board.setStepMode(stepMode);
+        board.setStep(step);
+        return board;
+    }
+
+    private static int encodeField(CommandCardField field) {
+        CommandCard card = field.getCard();
+        return (card == null ? 0 : card.command.ordinal() + 1) | (field.isVisible() ? 0x80 : 0);
+    }
+
+    private static void decodeField(CommandCardField field, int code) throws IOException {
+        int command = code & 0x7F;
+        field.setCard(command == 0 ? null : new CommandCard(COMMANDS[checkIndex(command - 1, COMMANDS.length)]));
+        field.setVisible((code & 0x80) != 0);
+    }
+
+    private static long encodeSpace(Board board, Space space) {
+        if (space == null) {
+            return 0;
+        } else if (space == board.getDeadSpace()) {
+            return 1;
+        }
+        return (long) space.y * board.width + space.x + 2;
+    }
+
+    private static Space decodeSpace(Board board, long code) throws IOException {
+        if (code == 0) {
+            return null;
+        } else if (code == 1) {
+            return board.getDeadSpace();
+        }
+        return board.getSpaceByIndex(checkIndex(code - 2, board.width * board.height));
+    }
+
+    /**
+     * Checks that a number read from a saved game is a valid index (or ordinal)
+     * for the given number of elements.
+     *
+     * @return the index
+     * @throws IOException if the index is out of range, which means that the
+     *                     saved game is corrupt
+     */
+    private static int checkIndex(long index, int length) throws IOException {
+        if (index < 0 || index >= length) {
+            throw new IOException(CORRUPT);
+        }
+        return (int) index;
+    }
+
+    static void writeVarint(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarint(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    private static void writeString(DataOutput out, String string) throws IOException {
+        if (string == null) {
+            writeVarint(out, 0);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length + 1);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = checkIndex(readVarint(in), MAX_STRING + 1);
+        if (length == 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
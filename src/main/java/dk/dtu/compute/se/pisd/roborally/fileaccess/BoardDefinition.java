@@ -0,0 +1,108 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The parsed layout of a board (track): its size, the walls and field
+ * actions of its spaces, its spawn spaces and its number of checkpoints.
+ * A definition is immutable; new boards with this layout are created by
+ * {@link #createBoard(String)}, without reading or parsing the board file again.
+ * <p>
+ * Internally, the layout is kept as a board without players, which is never
+ * handed out and never changed after the definition is created. The boards
+ * created from it are copies (see {@link Board#copy()}), which share the
+ * field actions and the compiled conveyor belts with this definition; each
+ * copy builds its own index of the field actions, since the index refers to
+ * the spaces of its board.
+ *
+ */
+public final class BoardDefinition {
+
+    private final Board prototype;
+
+    /**
+     * Creates a definition with the layout of the given board. The board
+     * must not be changed anymore after that.
+     *
+     * @param prototype the board with the layout, but without players
+     */
+    BoardDefinition(@NotNull Board prototype) {
+        this.prototype = prototype;
+    }
+
+    public int getWidth() {
+        return prototype.width;
+    }
+
+    public int getHeight() {
+        return prototype.height;
+    }
+
+    public int getNumberOfCheckpoints() {
+        return prototype.getNumberOfCheckpoints();
+    }
+
+    public int getNumberOfSpawnSpaces() {
+        return prototype.getSpawnSpaces().size();
+    }
+
+    /**
+     * Returns the walls of the space at the given position as a bit mask
+     * (see {@link Space#getWallMask()}).
+     *
+     * @param x the x coordinate of the space
+     * @param y the y coordinate of the space
+     * @return the bit mask of the walls
+     */
+    public int getWallMask(int x, int y) {
+        return prototype.getSpace(x, y).getWallMask();
+    }
+
+    /**
+     * Returns the field action of the space at the given position.
+     *
+     * @param x the x coordinate of the space
+     * @param y the y coordinate of the space
+     * @return the field action of the space, or null if it has none
+     */
+    public FieldAction getAction(int x, int y) {
+        return prototype.getSpace(x, y).getAction();
+    }
+
+    /**
+     * Creates a new board with this layout and without players.
+     *
+     * @param map the name (map) of the new board
+     * @return the new board
+     */
+    public Board createBoard(String map) {
+        Board board = prototype.copy();
+        board.setMap(map);
+        return board;
+    }
+
+}
@@ -0,0 +1,170 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A bounded cache of the {@link BoardDefinition}s of the boards in a folder,
+ * keyed by the name of the board. When the cache is used for the first time,
+ * it starts watching the folder (with a {@link WatchService} on a daemon
+ * thread), and the definition of a board is invalidated when its file is
+ * created, changed or deleted; the next access loads it again.
+ *
+ */
+class BoardDefinitionCache {
+
+    /**
+     * Loads the definition of the board with a given name.
+     */
+    interface Loader {
+        /**
+         * @param name the name of the board
+         * @return the definition of the board
+         * @throws IOException if the board could not be loaded
+         */
+        BoardDefinition load(String name) throws IOException;
+    }
+
+    private final Path folder;
+
+    private final String extension;
+
+    private final Loader loader;
+
+    private final Cache<String, BoardDefinition> cache;
+
+    private boolean watching;
+
+    /**
+     * Creates a cache of the boards in the given folder.
+     *
+     * @param folder the folder with the board files
+     * @param extension the extension of the board files (without the dot)
+     * @param maximumSize the maximum number of definitions kept; beyond that,
+     *                    the least recently used definitions are evicted
+     * @param loader the loader of the definitions
+     */
+    BoardDefinitionCache(@NotNull Path folder, @NotNull String extension, int maximumSize, @NotNull Loader loader) {
+        this.folder = folder;
+        this.extension = "." + extension;
+        this.loader = loader;
+        this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    /**
+     * Returns the definition of the board with the given name, which is loaded
+     * if it is not in the cache.
+     *
+     * @param name the name of the board
+     * @return the definition of the board
+     * @throws IOException if the board is not in the cache and could not be loaded
+     */
+    BoardDefinition get(@NotNull String name) throws IOException {
+        startWatching();
+        try {
+            return cache.get(name, () -> loader.load(name));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not load board " + name, e.getCause());
+        }
+    }
+
+    /**
+     * Removes the definition of the board with the given name from the cache.
+     *
+     * @param name the name of the board
+     */
+    void invalidate(@NotNull String name) {
+        cache.invalidate(name);
+    }
+
+    /**
+     * Returns the number of definitions currently in the cache.
+     *
+     * @return the number of definitions
+     */
+    long size() {
+        return cache.size();
+    }
+
+    private synchronized void startWatching() {
+        if (watching) {
+            return;
+        }
+        watching = true;
+        if (!Files.isDirectory(folder)) {
+            // the boards come from somewhere else (e.g. a board pack), which
+            // does not change while the game is running
+            return;
+        }
+        WatchService watchService;
+        try {
+            watchService = folder.getFileSystem().newWatchService();
+            folder.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            // without watching, the boards are loaded once and then kept
+            // until they are evicted or invalidated explicitly
+            System.out.println(e);
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(watchService), "board-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService watchService) {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        cache.invalidateAll();
+                    } else {
+                        String file = event.context().toString();
+                        if (file.endsWith(extension)) {
+                            cache.invalidate(file.substring(0, file.length() - extension.length()));
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    // the folder is gone, and so are the boards
+                    cache.invalidateAll();
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // the watcher is stopped
+        }
+    }
+
+}
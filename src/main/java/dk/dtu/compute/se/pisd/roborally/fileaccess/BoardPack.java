@@ -0,0 +1,238 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A single file (pack) with the JSON files of all boards, so that the boards
+ * are available when the game is not run from the project folder (e.g. from
+ * a jar). The file starts with an index of the boards, followed by the
+ * contents of the board files:
+ * <pre>
+ *  "RRP1" count (nameLength name offset length)* data
+ * </pre>
+ * where the counts, offsets and lengths are 4 byte integers, the name lengths
+ * are 2 byte integers, the names are UTF-8, and the offsets are relative to
+ * the start of the file. The pack is mapped into memory when it is opened and
+ * its index is read into a hash map, so that a board is found by its name in
+ * constant time and read from the mapped file without copying it.
+ * <p>
+ * A pack is created from a folder of board files by {@link #write(Path, Path)}
+ * or by running the {@link #main(String[])} method of this class.
+ *
+ */
+public class BoardPack {
+
+    /**
+     * The extension of board packs.
+     */
+    public static final String EXTENSION = "pack";
+
+    private static final int MAGIC = 0x52525031;
+
+    private static final String BOARD_EXTENSION = ".json";
+
+    private final ByteBuffer buffer;
+
+    private final Map<String, long[]> index;
+
+    private BoardPack(ByteBuffer buffer, Map<String, long[]> index) {
+        this.buffer = buffer;
+        this.index = index;
+    }
+
+    /**
+     * Opens the board pack in the given file.
+     *
+     * @param file the file of the pack
+     * @return the board pack
+     * @throws IOException if the file could not be read or is not a board pack
+     */
+    public static BoardPack open(@NotNull Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a board pack: " + file);
+            }
+            int count = buffer.getInt();
+            Map<String, long[]> index = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                byte[] name = new byte[buffer.getShort() & 0xFFFF];
+                buffer.get(name);
+                int offset = buffer.getInt();
+                int length = buffer.getInt();
+                if (offset < 0 || length < 0 || (long) offset + length > buffer.capacity()) {
+                    throw new IOException("Corrupt board pack: " + file);
+                }
+                index.put(new String(name, StandardCharsets.UTF_8), new long[]{offset, length});
+            }
+            return new BoardPack(buffer, index);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt board pack: " + file, e);
+        }
+    }
+
+    /**
+     * Returns the names of the boards in this pack.
+     *
+     * @return the names of the boards
+     */
+    public Set<String> getNames() {
+        return Collections.unmodifiableSet(index.keySet());
+    }
+
+    /**
+     * Returns whether the pack contains a board with the given name.
+     *
+     * @param name the name of the board
+     * @return true if the pack contains the board
+     */
+    public boolean contains(String name) {
+        return index.containsKey(name);
+    }
+
+    /**
+     * Returns a reader for the JSON of the board with the given name. The
+     * reader reads directly from the mapped file.
+     *
+     * @param name the name of the board
+     * @return the reader, or null if there is no board with that name
+     */
+    public Reader openBoard(@NotNull String name) {
+        long[] entry = index.get(name);
+        if (entry == null) {
+            return null;
+        }
+        // a duplicate, so that boards can be read concurrently
+        ByteBuffer board = buffer.duplicate();
+        board.position((int) entry[0]);
+        board.limit((int) (entry[0] + entry[1]));
+        return new InputStreamReader(new ByteBufferInputStream(board.slice()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a board pack with all boards (JSON files) of the given folder.
+     *
+     * @param folder the folder with the boards
+     * @param file the file of the pack
+     * @throws IOException if the boards could not be read or the pack not be written
+     */
+    public static void write(@NotNull Path folder, @NotNull Path file) throws IOException {
+        List<Path> boards;
+        try (Stream<Path> files = Files.list(folder)) {
+            boards = files.filter(path -> path.getFileName().toString().endsWith(BOARD_EXTENSION)).
+                    sorted().
+                    collect(Collectors.toList());
+        }
+        List<byte[]> names = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        int headerSize = 8;
+        for (Path board : boards) {
+            String name = board.getFileName().toString();
+            byte[] bytes = name.substring(0, name.length() - BOARD_EXTENSION.length()).getBytes(StandardCharsets.UTF_8);
+            names.add(bytes);
+            contents.add(Files.readAllBytes(board));
+            headerSize += 2 + bytes.length + 8;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(boards.size());
+            int offset = headerSize;
+            for (int i = 0; i < boards.size(); i++) {
+                out.writeShort(names.get(i).length);
+                out.write(names.get(i));
+                out.writeInt(offset);
+                out.writeInt(contents.get(i).length);
+                offset += contents.get(i).length;
+            }
+            for (byte[] content : contents) {
+                out.write(content);
+            }
+        }
+    }
+
+    /**
+     * Creates a board pack from a folder of boards. The arguments are the folder
+     * and the file of the pack.
+     *
+     * @param args the folder with the boards and the file of the pack
+     * @throws IOException if the pack could not be created
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: BoardPack <boards folder> <pack file>");
+            return;
+        }
+        write(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+
+    }
+
+}
@@ -0,0 +1,275 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the layout of a board from the JSON format of the boards folder (as
+ * written by {@link LoadBoard#saveBoard(Board, String)}). Other than reading
+ * a {@link dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate}
+ * with Gson, the board is read token by token, and the walls and actions of
+ * the spaces are set on the board right away. The field actions of the known
+ * classes are created directly; only actions of other classes are looked up
+ * by their class name and read reflectively by Gson.
+ * <p>
+ * The format does not fix the order of the properties of an object. If the
+ * spaces of a board come before its width and height, they are kept until the
+ * board can be created.
+ *
+ */
+class BoardReader {
+
+    private static final String CLASSNAME = "CLASSNAME";
+    private static final String INSTANCE  = "INSTANCE";
+
+    private static final Heading[] HEADINGS = Heading.values();
+
+    /**
+     * Reads the properties of the instance of a field action of a known class.
+     */
+    private interface ActionFactory {
+        FieldAction read(JsonReader in) throws IOException;
+    }
+
+    private static final Map<String, ActionFactory> FACTORIES = new HashMap<>();
+
+    static {
+        FACTORIES.put(ConveyorBelt.class.getName(), in -> {
+            Heading heading = null;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("heading") && in.peek() != JsonToken.NULL) {
+                    heading = Heading.valueOf(in.nextString());
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new ConveyorBelt(heading);
+        });
+        FACTORIES.put(Gear.class.getName(), in -> {
+            boolean clockwise = false;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("clockwise")) {
+                    clockwise = in.nextBoolean();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Gear(clockwise);
+        });
+        FACTORIES.put(Checkpoint.class.getName(), in -> {
+            int number = 0;
+            in.beginObject();
+            while (in.hasNext()) {
+                if (in.nextName().equals("number")) {
+                    number = in.nextInt();
+                } else {
+                    in.skipValue();
+                }
+            }
+            in.endObject();
+            return new Checkpoint(number);
+        });
+    }
+
+    /**
+     * A space of the file, which could not be set on the board yet.
+     */
+    private static class PendingSpace {
+        int x;
+        int y;
+        int walls;
+        FieldAction action;
+    }
+
+    private BoardReader() {
+    }
+
+    /**
+     * Reads a board from the given reader. The name (map) of the board is
+     * not set.
+     *
+     * @param in the reader; it is not closed
+     * @param gson the Gson instance for reading actions of unknown classes
+     * @return the board
+     * @throws IOException if the board could not be read
+     */
+    static Board read(@NotNull Reader in, @NotNull Gson gson) throws IOException {
+        JsonReader reader = gson.newJsonReader(in);
+        int width = -1;
+        int height = -1;
+        Board board = null;
+        List<PendingSpace> spaces = new ArrayList<>();
+        List<PendingSpace> spawnSpaces = new ArrayList<>();
+        PendingSpace space = new PendingSpace();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("width")) {
+                width = reader.nextInt();
+            } else if (name.equals("height")) {
+                height = reader.nextInt();
+            } else if (name.equals("spaces") || name.equals("spawnSpaces")) {
+                boolean spawn = name.equals("spawnSpaces");
+                if (board == null && width > 0 && height > 0) {
+                    board = new Board(width, height);
+                }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readSpace(reader, gson, space);
+                    if (board == null) {
+                        (spawn ? spawnSpaces : spaces).add(space);
+                        space = new PendingSpace();
+                    } else {
+                        apply(board, space, spawn);
+                    }
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        if (board == null) {
+            if (width <= 0 || height <= 0) {
+                throw new IOException("Board without width and height");
+            }
+            board = new Board(width, height);
+        }
+        for (PendingSpace pending : spawnSpaces) {
+            apply(board, pending, true);
+        }
+        for (PendingSpace pending : spaces) {
+            apply(board, pending, false);
+        }
+        return board;
+    }
+
+    private static void apply(Board board, PendingSpace pending, boolean spawn) {
+        Space space = board.getSpace(pending.x, pending.y);
+        if (space == null) {
+            return;
+        }
+        if (spawn) {
+            board.addSpawnSpace(space);
+            return;
+        }
+        if (pending.action != null) {
+            space.setAction(pending.action);
+        }
+        for (Heading heading : HEADINGS) {
+            if ((pending.walls & (1 << heading.ordinal())) != 0) {
+                space.addWall(heading);
+            }
+        }
+    }
+
+    private static void readSpace(JsonReader in, Gson gson, PendingSpace space) throws IOException {
+        space.x = 0;
+        space.y = 0;
+        space.walls = 0;
+        space.action = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+            } else if (name.equals("x")) {
+                space.x = in.nextInt();
+            } else if (name.equals("y")) {
+                space.y = in.nextInt();
+            } else if (name.equals("walls")) {
+                in.beginArray();
+                while (in.hasNext()) {
+                    space.walls |= 1 << Heading.valueOf(in.nextString()).ordinal();
+                }
+                in.endArray();
+            } else if (name.equals("action")) {
+                space.action = readAction(in, gson);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+    }
+
+    private static FieldAction readAction(JsonReader in, Gson gson) throws IOException {
+        String className = null;
+        JsonElement instance = null;
+        FieldAction action = null;
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (name.equals(CLASSNAME)) {
+                className = in.nextString();
+            } else if (name.equals(INSTANCE) && className != null) {
+                action = readInstance(in, gson, className);
+            } else if (name.equals(INSTANCE)) {
+                // the class is not known yet, so the instance is kept as a tree
+                instance = gson.fromJson(in, JsonElement.class);
+            } else {
+                in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (action == null && instance != null && className != null) {
+            action = gson.fromJson(instance, actionClass(className));
+        }
+        return action;
+    }
+
+    private static FieldAction readInstance(JsonReader in, Gson gson, String className) throws IOException {
+        ActionFactory factory = FACTORIES.get(className);
+        if (factory != null) {
+            return factory.read(in);
+        }
+        return gson.fromJson(in, actionClass(className));
+    }
+
+    private static Class<? extends FieldAction> actionClass(String className) throws IOException {
+        try {
+            return Class.forName(className).asSubclass(FieldAction.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IOException("Unknown field action " + className, e);
+        }
+    }
+
+}
@@ -0,0 +1,316 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardState;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Saves a running game incrementally: the first checkpoint is a full save
+ * (the base), and the following checkpoints append only the changes since
+ * the checkpoint before (deltas) to a delta file next to the base. A delta
+ * consists of the words of the {@link BoardState} of the game which changed
+ * (moved robots, changed registers and cards, checkpoints, phase and step),
+ * and the number of cards dealt. When the deltas exceed a given size, they
+ * are compacted in the background: the base is read, the deltas are applied
+ * to it, and the result replaces the base; then the delta file is started
+ * anew.
+ * <p>
+ * The delta file starts with the state of the game of its base. When loading
+ * a save, the deltas are applied only if this state is the state of the base
+ * (see {@link #apply(Path, Board)}). So, if a base is replaced by another save,
+ * or the application crashed during a compaction after the base was replaced,
+ * the old deltas are ignored. A delta, which was not written completely when
+ * the application crashed, is ignored as well. The format is:
+ * <pre>
+ *  magic length word* cardsDealt (size delta)*
+ *  delta: count (index word)* cardsDealt
+ * </pre>
+ * where the words of the state are 8 bytes, and all other numbers are varints
+ * (see {@link BinarySaveFormat}). The size is the number of bytes of the delta.
+ * <p>
+ * All files are written by the {@link GameSaver}, in the order of the checkpoints.
+ * The checkpoints must be made from a single thread (e.g. by a game listener).
+ *
+ */
+public class DeltaSaver {
+
+    /**
+     * The extension of delta files, which is appended to the name of the file
+     * of the base.
+     */
+    public static final String EXTENSION = "delta";
+
+    private static final int MAGIC = 0x52524431;
+
+    private static final String CORRUPT = "Corrupt delta";
+
+    private final GameSaver saver;
+
+    private final String name;
+
+    private final int compactionThreshold;
+
+    private final Path baseFile;
+
+    private final Path deltaFile;
+
+    private long[] last;
+
+    private long lastCardsDealt;
+
+    private long deltaSize;
+
+    /**
+     * Creates a delta saver for the save with the given name.
+     *
+     * @param saver the saver writing the files
+     * @param name the name of the save (see {@link LoadBoard#saveCurrentGame(Board, String)})
+     * @param compactionThreshold the size of the deltas in bytes, after which they
+     *                            are compacted into the base
+     */
+    public DeltaSaver(@NotNull GameSaver saver, @NotNull String name, int compactionThreshold) {
+        this.saver = saver;
+        this.name = name;
+        this.compactionThreshold = compactionThreshold;
+        this.baseFile = saver.getFolder().resolve(LoadBoard.getActiveGameFileName(name));
+        this.deltaFile = getDeltaPath(baseFile);
+    }
+
+    /**
+     * Returns the delta file of the save in the given file.
+     *
+     * @param baseFile the file of the save
+     * @return the delta file of the save
+     */
+    public static Path getDeltaPath(@NotNull Path baseFile) {
+        return baseFile.resolveSibling(baseFile.getFileName() + "." + EXTENSION);
+    }
+
+    /**
+     * Saves the current state of the game on the given board: fully, if this is
+     * the first checkpoint (or the number of players changed), and as a delta
+     * otherwise. The state is captured right away; the files are written in the
+     * background.
+     *
+     * @param board the board of the game
+     * @return the future completion of the checkpoint
+     */
+    public CompletableFuture<Void> checkpoint(@NotNull Board board) {
+        long[] state = BoardState.capture(board).toArray();
+        long cardsDealt = board.getCardsDealt();
+        if (last == null || last.length != state.length) {
+            last = state;
+            lastCardsDealt = cardsDealt;
+            deltaSize = 0;
+            saver.save(board, name);
+            byte[] header = encodeHeader(state, cardsDealt);
+            return saver.submit(() -> GameSaver.writeAtomically(deltaFile, header));
+        }
+
+        byte[] delta = encodeDelta(last, state, cardsDealt);
+        last = state;
+        lastCardsDealt = cardsDealt;
+        if (delta == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        deltaSize += delta.length;
+        CompletableFuture<Void> written = saver.submit(() -> append(delta));
+        if (deltaSize > compactionThreshold) {
+            deltaSize = 0;
+            written = saver.submit(this::compact);
+        }
+        return written;
+    }
+
+    /**
+     * Applies the deltas in the given delta file to the game on the given board,
+     * which must be the game of the base of the delta file. If there is no delta
+     * file, or the delta file belongs to another base, the game is not changed.
+     *
+     * @param deltaFile the delta file
+     * @param board the board of the game
+     * @return the number of deltas applied
+     * @throws IOException if the delta file could not be read
+     */
+    public static int apply(@NotNull Path deltaFile, @NotNull Board board) throws IOException {
+        if (!Files.exists(deltaFile)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(deltaFile)))) {
+            long[] state;
+            try {
+                if (in.readInt() != MAGIC) {
+                    throw new IOException("Not a delta file: " + deltaFile);
+                }
+                long words = BinarySaveFormat.readVarint(in);
+                if (words != 1 + 2 * board.getPlayersNumber()) {
+                    throw new IOException(CORRUPT);
+                }
+                state = new long[(int) words];
+                for (int i = 0; i < state.length; i++) {
+                    state[i] = in.readLong();
+                }
+                if (BinarySaveFormat.readVarint(in) != board.getCardsDealt()
+                        || !Arrays.equals(state, BoardState.capture(board).toArray())) {
+                    // the deltas of another base
+                    return 0;
+                }
+            } catch (EOFException e) {
+                return 0;
+            }
+
+            long cardsDealt = board.getCardsDealt();
+            int deltas = 0;
+            while (true) {
+                byte[] delta;
+                try {
+                    long length = BinarySaveFormat.readVarint(in);
+                    if (length < 0 || length > maxDeltaLength(state.length)) {
+                        throw new IOException(CORRUPT);
+                    }
+                    delta = new byte[(int) length];
+                    in.readFully(delta);
+                } catch (EOFException e) {
+                    // the end, or a delta which was not written completely
+                    break;
+                }
+                cardsDealt = decodeDelta(delta, state);
+                deltas++;
+            }
+            if (deltas > 0) {
+                try {
+                    BoardState.of(state).restore(board);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException(CORRUPT, e);
+                }
+                board.setCardsDealt(cardsDealt);
+            }
+            return deltas;
+        }
+    }
+
+    private void append(byte[] delta) throws IOException {
+        try (FileChannel channel = FileChannel.open(deltaFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap(delta);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+
+    private void compact() throws IOException {
+        Board board = LoadBoard.readActiveGame(baseFile);
+        apply(deltaFile, board);
+        GameSaver.writeAtomically(baseFile, LoadBoard.encodeCurrentGame(board, name));
+        // if the application crashes here, the deltas do not match the new
+        // base anymore, and are ignored
+        GameSaver.writeAtomically(deltaFile,
+                encodeHeader(BoardState.capture(board).toArray(), board.getCardsDealt()));
+    }
+
+    private static byte[] encodeHeader(long[] state, long cardsDealt) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            BinarySaveFormat.writeVarint(out, state.length);
+            for (long word : state) {
+                out.writeLong(word);
+            }
+            BinarySaveFormat.writeVarint(out, cardsDealt);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // not thrown by byte array streams
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] encodeDelta(long[] before, long[] after, long cardsDealt) {
+        int changed = 0;
+        for (int i = 0; i < after.length; i++) {
+            if (before[i] != after[i]) {
+                changed++;
+            }
+        }
+        if (changed == 0 && cardsDealt == lastCardsDealt) {
+            return null;
+        }
+        try {
+            ByteArrayOutputStream delta = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(delta);
+            BinarySaveFormat.writeVarint(out, changed);
+            for (int i = 0; i < after.length; i++) {
+                if (before[i] != after[i]) {
+                    BinarySaveFormat.writeVarint(out, i);
+                    out.writeLong(after[i]);
+                }
+            }
+            BinarySaveFormat.writeVarint(out, cardsDealt);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            BinarySaveFormat.writeVarint(new DataOutputStream(bytes), delta.size());
+            delta.writeTo(bytes);
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // not thrown by byte array streams
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static long decodeDelta(byte[] delta, long[] state) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(delta));
+        long changed = BinarySaveFormat.readVarint(in);
+        if (changed < 0 || changed > state.length) {
+            throw new IOException(CORRUPT);
+        }
+        for (int i = 0; i < changed; i++) {
+            long index = BinarySaveFormat.readVarint(in);
+            if (index < 0 || index >= state.length) {
+                throw new IOException(CORRUPT);
+            }
+            state[(int) index] = in.readLong();
+        }
+        return BinarySaveFormat.readVarint(in);
+    }
+
+    /**
+     * Returns the maximal length of a delta of a state with the given number of
+     * words: every word changed (with its index), and the number of cards dealt;
+     * varints have 10 bytes at most.
+     */
+    private static long maxDeltaLength(int words) {
+        return 10 + words * (10 + 8L) + 10;
+    }
+
+}
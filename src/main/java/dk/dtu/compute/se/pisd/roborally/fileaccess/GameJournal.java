@@ -0,0 +1,411 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Observer;
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An append-only journal of the changes of a game, from which the game can be
+ * rebuilt after a crash: the journal is replayed onto the save of the game it
+ * was started with (see {@link LoadBoard#loadRecoveredGame(String)}).
+ * <p>
+ * The journal is an observer of the board, its players and their command card
+ * fields; so every change of the game is journaled, no matter which part of the
+ * engine made it. Each change is written as a small binary record with the new
+ * state of the changed object:
+ * <ul>
+ *     <li>board: phase, step mode, step, current player and the number of
+ *         cards dealt (phase changes and steps)
+ *     <li>player: space, spawn space, heading, rebooting and checkpoint (robots
+ *         moved or pushed, turned, rebooted, and checkpoints reached)
+ *     <li>command card field: card and visibility (cards dealt and programs
+ *         submitted)
+ * </ul>
+ * Since the records contain states and not differences, replaying them in order
+ * results in the last journaled state of the game.
+ * <p>
+ * The records are collected in a buffer and written to the file through a
+ * {@link FileChannel}. The buffer is written and the file is forced to the disk
+ * a few times per second only (group commit), so that one <code>fsync</code>
+ * covers all changes in that time; a crash loses the changes of the last
+ * interval at most.
+ *
+ */
+public class GameJournal implements Observer {
+
+    /**
+     * The extension of journal files.
+     */
+    public static final String EXTENSION = "journal";
+
+    private static final int MAGIC = 0x52524A31; // "RRJ1"
+
+    private static final byte BOARD_RECORD = 1;
+    private static final byte PLAYER_RECORD = 2;
+    private static final byte FIELD_RECORD = 3;
+
+    private static final int BOARD_RECORD_SIZE = 1 + 4 + 8;
+    private static final int PLAYER_RECORD_SIZE = 1 + 1 + 4 + 4 + 2;
+    private static final int FIELD_RECORD_SIZE = 1 + 1 + 1 + 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final long SYNC_INTERVAL = 100; // milliseconds
+
+    private static final Phase[] PHASES = Phase.values();
+    private static final Heading[] HEADINGS = Heading.values();
+    private static final Command[] COMMANDS = Command.values();
+
+    private final Board board;
+
+    private final FileChannel channel;
+
+    private final ScheduledExecutorService syncer;
+
+    // The records are collected in one buffer, while the other one is written
+    // to the file; so the game never waits for the disk.
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+
+    private final Object writeLock = new Object();
+
+    private boolean dirty;
+
+    private boolean closed;
+
+    private GameJournal(@NotNull Board board, @NotNull FileChannel channel) {
+        this.board = board;
+        this.channel = channel;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a new journal for the game on the given board; an existing journal
+     * in the file is replaced. The journal observes the board from now on, so it
+     * must be started on the thread which runs the game.
+     *
+     * @param file the journal file
+     * @param board the board of the game
+     * @return the journal
+     * @throws IOException if the file could not be written
+     */
+    public static GameJournal start(@NotNull Path file, @NotNull Board board) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        GameJournal journal = new GameJournal(board, channel);
+        journal.buffer.putInt(MAGIC);
+        journal.buffer.putInt(board.getPlayersNumber());
+        journal.sync();
+
+        board.attach(journal);
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            player.attach(journal);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                player.getProgramField(j).attach(journal);
+            }
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                player.getCardField(j).attach(journal);
+            }
+        }
+        journal.syncer.scheduleWithFixedDelay(journal::syncQuietly, SYNC_INTERVAL, SYNC_INTERVAL, TimeUnit.MILLISECONDS);
+        return journal;
+    }
+
+    /**
+     * Replays a journal onto the given board, which must be the board of the save
+     * the journal was started with. A record at the end of the journal, which was
+     * not completely written, is ignored.
+     *
+     * @param file the journal file
+     * @param board the board
+     * @return the number of records replayed
+     * @throws IOException if the file could not be read, is not a journal of
+     *                     a game with the players of the board, or is corrupt;
+     *                     the records before the corrupt one are replayed then
+     */
+    public static int replay(@NotNull Path file, @NotNull Board board) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (in.remaining() < 8 || in.getInt() != MAGIC) {
+            throw new IOException("Not a game journal: " + file);
+        }
+        int players = in.getInt();
+        if (players != board.getPlayersNumber()) {
+            throw new IOException("The journal is for a game with " + players + " players");
+        }
+
+        int records = 0;
+        Subject.beginBatch();
+        try {
+            while (in.hasRemaining()) {
+                byte type = in.get(in.position());
+                if (type == BOARD_RECORD && in.remaining() >= BOARD_RECORD_SIZE) {
+                    in.get();
+                    replayBoard(board, in);
+                } else if (type == PLAYER_RECORD && in.remaining() >= PLAYER_RECORD_SIZE) {
+                    in.get();
+                    replayPlayer(board, in);
+                } else if (type == FIELD_RECORD && in.remaining() >= FIELD_RECORD_SIZE) {
+                    in.get();
+                    replayField(board, in);
+                } else {
+                    // the end of the journal was not written completely
+                    break;
+                }
+                records++;
+            }
+        } finally {
+            Subject.commitBatch();
+        }
+        return records;
+    }
+
+    @Override
+    public void update(Subject subject) {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (buffer.remaining() < BOARD_RECORD_SIZE + PLAYER_RECORD_SIZE) {
+                ByteBuffer larger = ByteBuffer.allocate(buffer.capacity() * 2);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+            if (subject == board) {
+                writeBoard();
+            } else if (subject instanceof Player) {
+                writePlayer((Player) subject);
+            } else if (subject instanceof CommandCardField) {
+                writeField((CommandCardField) subject);
+            } else {
+                return;
+            }
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes all journaled changes to the file and forces them to the disk.
+     *
+     * @throws IOException if the journal could not be written
+     */
+    public void sync() throws IOException {
+        synchronized (writeLock) {
+            ByteBuffer records;
+            synchronized (this) {
+                dirty = false;
+                if (buffer.position() == 0) {
+                    return;
+                }
+                records = buffer;
+                buffer = spare;
+                spare = null;
+            }
+            try {
+                records.flip();
+                while (records.hasRemaining()) {
+                    channel.write(records);
+                }
+                channel.force(false);
+            } finally {
+                records.clear();
+                synchronized (this) {
+                    spare = records;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the remaining changes and closes the journal; later changes of the
+     * game are not journaled anymore.
+     */
+    public void close() {
+        synchronized (writeLock) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+            }
+            syncer.shutdown();
+            try {
+                sync();
+                channel.close();
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        synchronized (this) {
+            if (!dirty || closed) {
+                return;
+            }
+        }
+        try {
+            sync();
+        } catch (IOException e) {
+            System.out.println(e);
+        }
+    }
+
+    private void writeBoard() {
+        Player current = board.getCurrentPlayer();
+        int header = board.getPhase().ordinal()
+                | (board.isStepMode() ? 1 : 0) << 8
+                | (board.getStep() & 0xFF) << 16
+                | ((current == null ? -1 : board.getPlayerNumber(current)) + 1) << 24;
+        buffer.put(BOARD_RECORD).putInt(header).putLong(board.getCardsDealt());
+    }
+
+    private static void replayBoard(Board board, ByteBuffer in) throws IOException {
+        int header = in.getInt();
+        long cardsDealt = in.getLong();
+        Phase phase = PHASES[checkIndex(header & 0xFF, PHASES.length)];
+        int current = (header >>> 24 & 0xFF) - 1;
+        Player currentPlayer = current < 0 ? null : board.getPlayer(checkIndex(current, board.getPlayersNumber()));
+        board.setPhase(phase);
+        board.setStepMode((header >>> 8 & 1) != 0);
+        board.setStep(header >>> 16 & 0xFF);
+        if (currentPlayer != null) {
+            board.setCurrentPlayer(currentPlayer);
+        }
+        board.setCardsDealt(cardsDealt);
+    }
+
+    private void writePlayer(Player player) {
+        int status = player.getHeading().ordinal()
+                | (player.isRebooting() ? 4 : 0)
+                | (player.getCurrentCheckpoint() & 0xFF) << 8;
+        buffer.put(PLAYER_RECORD)
+                .put((byte) board.getPlayerNumber(player))
+                .putInt(encodeSpace(player.getSpace()))
+                .putInt(encodeSpace(player.getSpawnSpace()))
+                .putShort((short) status);
+    }
+
+    private static void replayPlayer(Board board, ByteBuffer in) throws IOException {
+        Player player = board.getPlayer(checkIndex(in.get(), board.getPlayersNumber()));
+        Space space = decodeSpace(board, in.getInt());
+        Space spawnSpace = decodeSpace(board, in.getInt());
+        int status = in.getShort() & 0xFFFF;
+        checkIndex(status & 0xFF, 2 * HEADINGS.length);
+
+        // The player which was on the space in the journal has left it; its
+        // own record follows later in the journal.
+        if (space != null && space != board.getDeadSpace()
+                && space.getPlayer() != null && space.getPlayer() != player) {
+            space.getPlayer().setSpace(null);
+        }
+        player.setSpace(space);
+        player.setSpawnSpace(spawnSpace);
+        player.setHeading(HEADINGS[status & 3]);
+        player.setRebooting((status & 4) != 0);
+        player.setCurrentCheckpoint(status >>> 8 & 0xFF);
+    }
+
+    private void writeField(CommandCardField field) {
+        Player player = field.player;
+        int index = -1;
+        for (int i = 0; i < Player.NO_REGISTERS && index < 0; i++) {
+            if (player.getProgramField(i) == field) index = i;
+        }
+        for (int i = 0; i < Player.NO_CARDS && index < 0; i++) {
+            if (player.getCardField(i) == field) index = Player.NO_REGISTERS + i;
+        }
+        if (index < 0) {
+            return;
+        }
+        CommandCard card = field.getCard();
+        int code = (card == null ? 0 : card.command.ordinal() + 1) | (field.isVisible() ? 0x80 : 0);
+        buffer.put(FIELD_RECORD)
+                .put((byte) board.getPlayerNumber(player))
+                .put((byte) index)
+                .put((byte) code);
+    }
+
+    private static void replayField(Board board, ByteBuffer in) throws IOException {
+        Player player = board.getPlayer(checkIndex(in.get(), board.getPlayersNumber()));
+        int index = checkIndex(in.get(), Player.NO_REGISTERS + Player.NO_CARDS);
+        int code = in.get() & 0xFF;
+        CommandCardField field = index < Player.NO_REGISTERS ?
+                player.getProgramField(index) : player.getCardField(index - Player.NO_REGISTERS);
+        int command = code & 0x7F;
+        field.setCard(command == 0 ? null : new CommandCard(COMMANDS[checkIndex(command - 1, COMMANDS.length)]));
+        field.setVisible((code & 0x80) != 0);
+    }
+
+    private int encodeSpace(Space space) {
+        if (space == null) {
+            return -1;
+        } else if (space == board.getDeadSpace()) {
+            return -2;
+        }
+        return space.y * board.width + space.x;
+    }
+
+    private static Space decodeSpace(Board board, int code) throws IOException {
+        if (code == -1) {
+            return null;
+        } else if (code == -2) {
+            return board.getDeadSpace();
+        }
+        return board.getSpaceByIndex(checkIndex(code, board.width * board.height));
+    }
+
+    /**
+     * Checks that a number read from a journal is a valid index (or ordinal)
+     * for the given number of elements.
+     *
+     * @return the index
+     * @throws IOException if the index is out of range, which means that the
+     *                     journal is corrupt
+     */
+    private static int checkIndex(int index, int length) throws IOException {
+        if (index < 0 || index >= length) {
+            throw new IOException("Corrupt journal");
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.GameRecording;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+/**
+ * Saves games without blocking the caller and without the risk of a broken
+ * save. The game is encoded on the thread calling {@link #save(Board, String)},
+ * so that the save is a consistent snapshot of the game at that time; the
+ * encoded game is then written on a background thread: first to a temporary
+ * file in the folder of the saves, which is forced to the disk, and then moved
+ * over the save atomically. So, if the application crashes while saving, the
+ * old save is still there. The saves are written one after the other, in the
+ * order in which they were requested.
+ *
+ */
+public class GameSaver {
+
+    private static final String TEMP_EXTENSION = ".tmp";
+
+    private final Path folder;
+
+    private final ExecutorService executor;
+
+    /**
+     * Creates a saver for saves in the given folder.
+     *
+     * @param folder the folder of the saves
+     */
+    public GameSaver(@NotNull Path folder) {
+        this.folder = folder;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-saver");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Saves the game on the given board under the given name (with the format
+     * chosen by the name, see {@link LoadBoard#saveCurrentGame(Board, String)}).
+     * The game is encoded right away, and written in the background.
+     *
+     * @param board the board of the game
+     * @param name the name of the save
+     * @return the future file of the save; it completes exceptionally if the
+     *         game could not be saved
+     */
+    public CompletableFuture<Path> save(@NotNull Board board, @NotNull String name) {
+        byte[] contents;
+        try {
+            contents = LoadBoard.encodeCurrentGame(board, name);
+        } catch (IOException e) {
+            CompletableFuture<Path> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return write(folder.resolve(LoadBoard.getActiveGameFileName(name)), contents);
+    }
+
+    /**
+     * Saves the recording of the game on the given board as a replay with the
+     * given name (see {@link ReplayFile}). Like a game, the recording is encoded
+     * right away, and written in the background.
+     *
+     * @param board the board of the recorded game
+     * @param recording the recording of the game
+     * @param name the name of the replay
+     * @return the future file of the replay; it completes exceptionally if the
+     *         replay could not be saved
+     */
+    public CompletableFuture<Path> saveReplay(@NotNull Board board, @NotNull GameRecording recording,
+                                              @NotNull String name) {
+        byte[] contents;
+        try {
+            contents = ReplayFile.encode(board, recording);
+        } catch (IOException e) {
+            CompletableFuture<Path> failed = new CompletableFuture<>();
+            failed.completeExceptionally(e);
+            return failed;
+        }
+        return write(folder.resolve(LoadBoard.getReplayFileName(name)), contents);
+    }
+
+    /**
+     * Deletes the save with the given name, together with its delta checkpoints
+     * (see {@link DeltaSaver}) and its journal (see {@link GameJournal}), after
+     * the saves which were requested before are written.
+     *
+     * @param name the name of the save
+     * @return the future completion of the deletion; it completes exceptionally
+     *         if the files could not be deleted
+     */
+    public CompletableFuture<Void> delete(@NotNull String name) {
+        Path file = folder.resolve(LoadBoard.getActiveGameFileName(name));
+        return submit(() -> {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(DeltaSaver.getDeltaPath(file));
+            Files.deleteIfExists(folder.resolve(name + "." + GameJournal.EXTENSION));
+        });
+    }
+
+    private CompletableFuture<Path> write(Path file, byte[] contents) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                writeAtomically(file, contents);
+                return file;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * A write to a file, which is run by the saver.
+     */
+    interface Write {
+        void run() throws IOException;
+    }
+
+    /**
+     * Runs the given write in the background, after the saves and writes which
+     * were requested before.
+     *
+     * @param write the write
+     * @return the future completion of the write
+     */
+    CompletableFuture<Void> submit(@NotNull Write write) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write.run();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * Returns the folder of the saves.
+     *
+     * @return the folder of the saves
+     */
+    public Path getFolder() {
+        return folder;
+    }
+
+    /**
+     * Writes the given contents to the given file: the contents are written to a
+     * temporary file in the same folder first, which is then forced to the disk
+     * and moved over the file atomically (if the file system supports it).
+     *
+     * @param file the file
+     * @param contents the contents of the file
+     * @throws IOException if the file could not be written; the file is not
+     *                     changed then
+     */
+    public static void writeAtomically(@NotNull Path file, byte[] contents) throws IOException {
+        Path folder = file.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(folder, file.getFileName().toString(), TEMP_EXTENSION);
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(contents);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            try {
+                Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Stops the saver, after the saves which were requested already are written.
+     *
+     * @param timeout the maximum time to wait for the saves, in milliseconds
+     */
+    public void shutdown(long timeout) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -23,14 +23,25 @@ package dk.dtu.compute.se.pisd.roborally.fileaccess;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
 import com.google.gson.stream.JsonWriter;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
 import dk.dtu.compute.se.pisd.roborally.fileaccess.model.SpaceTemplate;
 import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
 
 import java.io.*;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * ...
@@ -46,6 +57,54 @@ public class LoadBoard {
     private static final String BOARDSFOLDER = PATH_TO_RES + "boards";
     private static final String ACTIVEGAMES = PATH_TO_RES + "activeGames";
 
+    // Gson instances are thread-safe and cache the type adapters they create,
+    // so they are created once and shared for all reading and writing
+    private static final Gson READER = new GsonBuilder().
+            registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>()).
+            create();
+
+    private static final Gson BOARD_WRITER = new GsonBuilder().
+            registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>()).
+            setPrettyPrinting().
+            create();
+
+    private static final Gson GAME_WRITER = new GsonBuilder().
+            excludeFieldsWithoutExposeAnnotation().
+            setPrettyPrinting().
+            create();
+
+    private static final int CACHED_BOARDS = 16;
+
+    /**
+     * The name of the save of the running game, onto which its journal is
+     * replayed after a crash (see {@link #loadRecoveredGame(String)}).
+     */
+    public static final String RECOVERY = "recovery";
+
+    /**
+     * The name of the autosave of the running game.
+     */
+    public static final String AUTOSAVE = "autosave";
+
+    /**
+     * The name of the system property with the file of the board pack.
+     */
+    public static final String BOARD_PACK_PROPERTY = "roborally.boardpack";
+
+    private static final BoardDefinitionCache BOARDS =
+            new BoardDefinitionCache(Paths.get(BOARDSFOLDER), JSON_EXT, CACHED_BOARDS, LoadBoard::loadDefinition);
+
+    /**
+     * Loads the board with the given name from the boards folder. If there is no
+     * board with that name, the default board is loaded (but the board still gets
+     * the given name as map). The layouts of the boards are cached (see
+     * {@link #getBoardDefinition(String)}), so that loading a board again does
+     * not read the file again, unless the file was changed.
+     *
+     * @param boardName the name of the board
+     * @return the board, or null if the board could not be loaded
+     */
+
     public static Board loadBoard(String boardName) {
 
         if (boardName == null) {
@@ -53,67 +112,113 @@ public class LoadBoard {
             System.out.println("printing default");
         }
 
-        File file = new File(BOARDSFOLDER + File.separator + boardName + "." + JSON_EXT);
-
-        if (!file.exists()) {
+        BoardDefinition definition = getBoardDefinition(boardName);
+        if (definition == null) {
             System.out.println("File not found - printing default");
-            file = new File(BOARDSFOLDER + File.separator + DEFAULTBOARD + "." + JSON_EXT);
+            definition = getBoardDefinition(DEFAULTBOARD);
         }
+        return definition == null ? null : definition.createBoard(boardName);
+    }
 
-        GsonBuilder simpleBuilder = new GsonBuilder().registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>());
-        Gson gson = simpleBuilder.create();
-
-        Board result;
-        JsonReader reader = null;
-
+    /**
+     * Returns the layout of the board with the given name from the boards folder.
+     * The layouts are kept in a bounded cache; the layout of a board is removed
+     * from the cache when its file in the boards folder changes.
+     *
+     * @param boardName the name of the board
+     * @return the layout of the board, or null if it could not be loaded
+     */
+    public static BoardDefinition getBoardDefinition(@NotNull String boardName) {
         try {
-            reader = gson.newJsonReader(new FileReader(file));
-            BoardTemplate template = gson.fromJson(reader, BoardTemplate.class);
-
-            result = new Board(template.width, template.height);
+            return BOARDS.get(boardName);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            System.out.println(e);
+            return null;
+        }
+    }
 
-            for (SpaceTemplate spaceTemplate: template.spawnSpaces) {
-                Space space = result.getSpace(spaceTemplate.x, spaceTemplate.y);
-                if (space != null) {
-                    result.addSpawnSpace(space);
-                }
-            }
-            int checkPoints = 0;
-            for (SpaceTemplate spaceTemplate: template.spaces) {
-                Space space = result.getSpace(spaceTemplate.x, spaceTemplate.y);
-                if (space != null) {
-                    if (spaceTemplate.action instanceof Checkpoint) checkPoints++;
-                    space.setAction(spaceTemplate.action);
-                    space.getWalls().addAll(spaceTemplate.walls);
-                }
-            }
+    private static BoardDefinition loadDefinition(String boardName) throws IOException {
+        File file = new File(BOARDSFOLDER + File.separator + boardName + "." + JSON_EXT);
 
-            reader.close();
-            result.setNumberOfCheckpoints(checkPoints);
+        BoardPack pack = file.exists() ? null : getBoardPack();
+        Reader in = pack == null ? null : pack.openBoard(boardName);
+        if (in == null) {
+            in = new FileReader(file);
+        }
+        try (Reader reader = new BufferedReader(in)) {
+            Board result = BoardReader.read(reader, READER);
+            // the belts are compiled right away, so that this is not done in the
+            // first register of every game; the index of the field actions refers
+            // to the spaces of a board, so each board created from the definition
+            // builds its own (see Board.copy())
+            result.getConveyorGraph();
+            result.setNumberOfCheckpoints(
+                    FieldActionIndex.build(result).count(ActivationOrder.CHECKPOINTS));
             result.setMap(boardName);
-
-            return result;
-        } catch (IOException e1) {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e2) {}
-            }
+            return new BoardDefinition(result);
+        } catch (JsonParseException | IllegalArgumentException e) {
+            throw new IOException("Could not read board " + boardName, e);
         }
-        return null;
     }
 
 
 
+    /**
+     * Loads the saved game with the given name from the active games folder. If the
+     * name ends with the extension of the {@link BinarySaveFormat}, the game is read
+     * from that binary file; otherwise, it is read from the JSON file with that name.
+     * If there are delta checkpoints for the save (see {@link DeltaSaver}), they are
+     * applied to the game.
+     *
+     * @param activeGameName the name of the saved game
+     * @return the board of the game, or null if the game could not be loaded
+     */
     public static Board loadActiveBoard(String activeGameName){
-        File file = new File(ACTIVEGAMES + File.separator + activeGameName + "." + JSON_EXT);
-
-        if (!file.exists()) {
+        Path file = Paths.get(ACTIVEGAMES, getActiveGameFileName(activeGameName));
+        if (!Files.exists(file)) {
             return null;
         }
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>());
-        Gson gson = simpleBuilder.create();
+        try {
+            Board board = readActiveGame(file);
+            DeltaSaver.apply(DeltaSaver.getDeltaPath(file), board);
+            return board;
+        } catch (IOException e) {
+            System.out.println(e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the saved game in the given file, in the binary format if the name of
+     * the file ends with the extension of the {@link BinarySaveFormat}, and in the
+     * JSON format otherwise.
+     *
+     * @param file the file of the saved game
+     * @return the board of the game
+     * @throws IOException if the game could not be read
+     */
+    public static Board readActiveGame(Path file) throws IOException {
+        if (isBinary(file.getFileName().toString())) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                return BinarySaveFormat.read(in);
+            }
+        }
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return readActiveGame(reader);
+        }
+    }
+
+    /**
+     * Reads a game saved in the JSON format.
+     *
+     * @param in the reader for the saved game; it is not closed
+     * @return the board of the game
+     * @throws IOException if the game could not be read
+     */
+    public static Board readActiveGame(Reader in) throws IOException {
+        Gson gson = READER;
 
         String mapName = "";
         List<Player> playerList = null;
@@ -121,31 +226,28 @@ public class LoadBoard {
         Phase phase = null;
         Boolean stepmode = null;
         int step = 0;
+        long seed = 0;
+        long cardsDealt = 0;
 
 
-        JsonReader reader = null;
-        try {
-            reader = gson.newJsonReader(new FileReader(file));
-            Board template = gson.fromJson(reader, Board.class);
-
-            mapName = template.getMap();
-            playerList = template.getPlayers();
-            current = template.getCurrentPlayer();
-            phase = template.getPhase();
-            stepmode = template.isStepMode();
-            step = template.getStep();
-
-            reader.close();
-
-        } catch (IOException e1) {
-            if (reader != null) {
-                try {
-                    reader.close();
-                } catch (IOException e2) {}
-            }
+        JsonReader reader = gson.newJsonReader(in);
+        Board template = gson.fromJson(reader, Board.class);
+        if (template == null) {
+            throw new IOException("Empty saved game");
         }
 
+        mapName = template.getMap();
+        playerList = template.getPlayers();
+        current = template.getCurrentPlayer();
+        phase = template.getPhase();
+        stepmode = template.isStepMode();
+        step = template.getStep();
+        seed = template.getSeed();
+        cardsDealt = template.getCardsDealt();
+
         Board board = loadBoard(mapName);
+        board.setSeed(seed);
+        board.setCardsDealt(cardsDealt);
 
         for(Player p : playerList) {
 
@@ -182,25 +284,166 @@ public class LoadBoard {
     public static String[] getTracks(){
 
         File folder = new File(BOARDSFOLDER);
-        System.out.println(folder.getAbsolutePath());
 
-        if(folder.listFiles() == null)
+        // the folder is listed only once; the boards of the pack are added,
+        // so that the boards are also available outside the project folder
+        Set<String> tracks = new TreeSet<>();
+        File[] boards = folder.listFiles((dir, name) -> name.endsWith("." + JSON_EXT));
+        if (boards != null) {
+            for (File board : boards) {
+                String name = board.getName();
+                tracks.add(name.substring(0, name.length() - JSON_EXT.length() - 1));
+            }
+        }
+        BoardPack pack = getBoardPack();
+        if (pack != null) {
+            tracks.addAll(pack.getNames());
+        }
+        if (tracks.isEmpty())
             return null;
-        String[] files = new String[folder.listFiles().length];
-        for(int i = 0; i < folder.listFiles().length; i++)
-            files[i] = folder.listFiles()[i].getName().substring(0,folder.listFiles()[i].getName().length()-5);
-        return files;
+        return tracks.toArray(new String[0]);
+    }
+
+    /**
+     * Returns the pack with the boards, which are used when a board is not found
+     * in the boards folder. The pack is the file given by the system property
+     * {@value #BOARD_PACK_PROPERTY} or, by default, the file "boards.pack" in the
+     * folder containing the jar (resp. the classes folder) of the game. The pack
+     * is opened only once.
+     *
+     * @return the board pack, or null if there is no board pack
+     */
+    public static BoardPack getBoardPack() {
+        return BoardPackHolder.PACK;
+    }
+
+    private static class BoardPackHolder {
+
+        private static final BoardPack PACK = openBoardPack();
+
+        private static BoardPack openBoardPack() {
+            try {
+                Path file;
+                String property = System.getProperty(BOARD_PACK_PROPERTY);
+                if (property != null) {
+                    file = Paths.get(property);
+                } else {
+                    Path code = Paths.get(LoadBoard.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+                    file = code.resolveSibling("boards." + BoardPack.EXTENSION);
+                }
+                return Files.isRegularFile(file) ? BoardPack.open(file) : null;
+            } catch (IOException | URISyntaxException | RuntimeException e) {
+                System.out.println(e);
+                return null;
+            }
+        }
+
     }
+    /**
+     * Returns the names of the games saved by the players. The saves which the
+     * application writes by itself ({@link #RECOVERY} and {@link #AUTOSAVE}) and
+     * the journals of the games are not listed.
+     *
+     * @return the names of the saved games, or null if there is no folder with
+     *         saved games
+     */
     public static String[] getActiveGames(){
         File folder = new File(ACTIVEGAMES);
 
-        if(folder.listFiles() == null)
+        // only the saves, not the journals of the games; binary saves are listed
+        // with their extension, so that they are loaded in the binary format
+        File[] saves = folder.listFiles((dir, name) -> name.endsWith("." + JSON_EXT) || isBinary(name));
+        if(saves == null)
+            return null;
+        List<String> files = new ArrayList<>();
+        for (File save : saves) {
+            String name = save.getName();
+            if (!isBinary(name)) {
+                name = name.substring(0, name.length() - JSON_EXT.length() - 1);
+            }
+            if (!name.equals(RECOVERY) && !name.equals(AUTOSAVE)) {
+                files.add(name);
+            }
+        }
+        return files.toArray(new String[0]);
+
+    }
+
+    /**
+     * Returns the path of the journal of the active game with the given name
+     * (see {@link GameJournal}).
+     *
+     * @param activeGameName the name of the saved game
+     * @return the path of the journal file
+     */
+    public static Path getJournalPath(String activeGameName) {
+        return Paths.get(ACTIVEGAMES, activeGameName + "." + GameJournal.EXTENSION);
+    }
+
+    /**
+     * Returns the name of the file of the replay with the given name (see
+     * {@link GameSaver#saveReplay}).
+     *
+     * @param name the name of the replay
+     * @return the name of the file in the folder of the saved games
+     */
+    public static String getReplayFileName(String name) {
+        return name + "." + ReplayFile.EXTENSION;
+    }
+
+    /**
+     * Returns the names of the replays of finished games.
+     *
+     * @return the names of the replays, or null if there is no folder with
+     *         saved games
+     */
+    public static String[] getReplays() {
+        String extension = "." + ReplayFile.EXTENSION;
+        String[] files = new File(ACTIVEGAMES).list((dir, name) -> name.endsWith(extension));
+        if (files == null)
             return null;
-        String[] files = new String[folder.listFiles().length];
-        for(int i = 0; i < folder.listFiles().length; i++)
-            files[i] = folder.listFiles()[i].getName().substring(0,folder.listFiles()[i].getName().length()-5);
+        for (int i = 0; i < files.length; i++) {
+            files[i] = files[i].substring(0, files[i].length() - extension.length());
+        }
+        Arrays.sort(files);
         return files;
+    }
+
+    /**
+     * Loads the replay with the given name from the folder of the saved games.
+     *
+     * @param name the name of the replay
+     * @return the replay, or null if it could not be loaded
+     */
+    public static ReplayFile loadReplay(String name) {
+        Path file = Paths.get(ACTIVEGAMES, getReplayFileName(name));
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return ReplayFile.read(in);
+        } catch (IOException e) {
+            System.out.println(e);
+            return null;
+        }
+    }
 
+    /**
+     * Loads the saved game with the given name and replays its journal, if there
+     * is one, onto it; this rebuilds the game as it was when the journal was
+     * written last.
+     *
+     * @param activeGameName the name of the saved game
+     * @return the board of the game, or null if the game could not be loaded
+     */
+    public static Board loadRecoveredGame(String activeGameName) {
+        Board board = loadActiveBoard(activeGameName);
+        Path journal = getJournalPath(activeGameName);
+        if (board != null && Files.exists(journal)) {
+            try {
+                GameJournal.replay(journal, board);
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+        return board;
     }
 
 
@@ -226,21 +469,86 @@ public class LoadBoard {
 
         String filename = BOARDSFOLDER + File.separator + name + "." + JSON_EXT;
 
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>()).
-                setPrettyPrinting();
-        Gson gson = simpleBuilder.create();
-
-        writeFile(template, filename, gson);
+        writeFile(template, filename, BOARD_WRITER);
+        BOARDS.invalidate(name);
     }
+    /**
+     * Saves the game on the given board in the active games folder. If the name ends
+     * with the extension of the {@link BinarySaveFormat}, the game is saved in that
+     * binary format (in a file with that name); otherwise, it is saved in the JSON
+     * format (in a file with the name and the extension of JSON files). An existing
+     * save is replaced atomically (see {@link GameSaver#writeAtomically(Path, byte[])}).
+     * For saving without blocking the caller, see {@link GameSaver}.
+     *
+     * @param board the board of the game
+     * @param name the name of the saved game
+     */
     public static void saveCurrentGame(Board board, String name){
-        String filename = ACTIVEGAMES + File.separator + name + "." + JSON_EXT;
-        GsonBuilder simpleBuilder = new GsonBuilder().
-                excludeFieldsWithoutExposeAnnotation().
-                setPrettyPrinting();
-        Gson gson = simpleBuilder.create();
+        try {
+            GameSaver.writeAtomically(Paths.get(ACTIVEGAMES, getActiveGameFileName(name)),
+                    encodeCurrentGame(board, name));
+        } catch (IOException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * Returns the folder with the saved games.
+     *
+     * @return the folder with the saved games
+     */
+    public static Path getActiveGamesFolder() {
+        return Paths.get(ACTIVEGAMES);
+    }
+
+    /**
+     * Returns the name of the file of the saved game with the given name (see
+     * {@link #saveCurrentGame(Board, String)}).
+     *
+     * @param name the name of the saved game
+     * @return the name of the file in the folder of the saved games
+     */
+    public static String getActiveGameFileName(String name) {
+        return isBinary(name) ? name : name + "." + JSON_EXT;
+    }
+
+    /**
+     * Encodes the game on the given board in the format of a saved game with
+     * the given name (see {@link #saveCurrentGame(Board, String)}).
+     *
+     * @param board the board of the game
+     * @param name the name of the saved game
+     * @return the contents of the file of the saved game
+     * @throws IOException if the game could not be encoded
+     */
+    public static byte[] encodeCurrentGame(Board board, String name) throws IOException {
+        if (isBinary(name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            BinarySaveFormat.write(board, out);
+            return out.toByteArray();
+        }
+        StringWriter out = new StringWriter();
+        writeCurrentGame(board, out);
+        return out.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the game on the given board in the JSON format.
+     *
+     * @param board the board of the game
+     * @param out the writer for the saved game; it is not closed
+     * @throws IOException if the game could not be written
+     */
+    public static void writeCurrentGame(Board board, Writer out) throws IOException {
+        Gson gson = GAME_WRITER;
+
+        JsonWriter writer = gson.newJsonWriter(out);
+        gson.toJson(board, board.getClass(), writer);
+        writer.flush();
+    }
 
-        writeFile(board, filename, gson);
+    private static boolean isBinary(String name) {
+        return name != null && name.endsWith("." + BinarySaveFormat.EXTENSION);
     }
 
     private static  <T> void writeFile(T object, String filename, Gson gson) {
@@ -0,0 +1,166 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardState;
+import dk.dtu.compute.se.pisd.roborally.model.GameRecording;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+
+/**
+ * A recorded game (see {@link GameRecording}) as it is stored in a file, so
+ * that a game can be replayed after it was finished. The file contains the
+ * game in the {@link BinarySaveFormat}, which provides the board and the
+ * players, followed by the frames of the recording:
+ * <pre>
+ *  "RRP1" game words frames
+ *  for each frame:
+ *     changes (index value)*
+ * </pre>
+ * where <i>words</i> is the length of the encoded {@link BoardState} of the
+ * game, and each frame consists of the words which changed since the frame
+ * before (for the first frame, the words which are not 0), each as its index
+ * and its value. The numbers are varints, except for the values, which are
+ * 8 bytes.
+ *
+ */
+public final class ReplayFile {
+
+    /**
+     * The extension of replay files.
+     */
+    public static final String EXTENSION = "replay";
+
+    private static final int MAGIC = 0x52525031; // "RRP1"
+
+    private static final String CORRUPT = "Corrupt replay";
+
+    private final Board board;
+
+    private final GameRecording recording;
+
+    private ReplayFile(Board board, GameRecording recording) {
+        this.board = board;
+        this.recording = recording;
+    }
+
+    /**
+     * Returns the board of the replayed game, which has the layout and the
+     * players of the game.
+     *
+     * @return the board of the game
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    public GameRecording getRecording() {
+        return recording;
+    }
+
+    /**
+     * Encodes the recording of the game on the given board.
+     *
+     * @param board the board of the recorded game
+     * @param recording the recording of the game
+     * @return the contents of the replay file
+     * @throws IOException if the game could not be encoded
+     */
+    public static byte[] encode(@NotNull Board board, @NotNull GameRecording recording) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        BinarySaveFormat.write(board, out);
+
+        int frames = recording.size();
+        long[] last = new long[1 + 2 * board.getPlayersNumber()];
+        BinarySaveFormat.writeVarint(out, last.length);
+        BinarySaveFormat.writeVarint(out, frames);
+        for (int frame = 0; frame < frames; frame++) {
+            long[] data = recording.getState(frame).toArray();
+            int changes = 0;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] != last[i]) changes++;
+            }
+            BinarySaveFormat.writeVarint(out, changes);
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] != last[i]) {
+                    BinarySaveFormat.writeVarint(out, i);
+                    out.writeLong(data[i]);
+                }
+            }
+            last = data;
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a recorded game from the stream; the layout of the board is loaded
+     * from the boards folder (see {@link BinarySaveFormat#read(InputStream)}).
+     *
+     * @param in the stream; it is not closed
+     * @return the recorded game
+     * @throws IOException if the stream could not be read, or is not a replay
+     *                     or is corrupt
+     */
+    public static ReplayFile read(@NotNull InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a replay");
+        }
+        Board board = BinarySaveFormat.read(data);
+
+        long words = BinarySaveFormat.readVarint(data);
+        if (words != 1 + 2 * board.getPlayersNumber()) {
+            throw new IOException(CORRUPT);
+        }
+        long frames = BinarySaveFormat.readVarint(data);
+        GameRecording recording = new GameRecording();
+        long[] state = new long[(int) words];
+        for (long frame = 0; frame < frames; frame++) {
+            long changes = BinarySaveFormat.readVarint(data);
+            if (changes > words) {
+                throw new IOException(CORRUPT);
+            }
+            for (int i = 0; i < changes; i++) {
+                long index = BinarySaveFormat.readVarint(data);
+                if (index >= words) {
+                    throw new IOException(CORRUPT);
+                }
+                state[(int) index] = data.readLong();
+            }
+            try {
+                BoardState frameState = BoardState.of(state);
+                // every frame must be a state of this game
+                frameState.restore(board);
+                recording.append(frameState);
+            } catch (RuntimeException e) {
+                throw new IOException(CORRUPT, e);
+            }
+        }
+        return new ReplayFile(board, recording);
+    }
+
+}
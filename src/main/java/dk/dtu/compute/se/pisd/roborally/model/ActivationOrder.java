@@ -0,0 +1,37 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.model;
+
+/**
+ * The order in which the field actions of a board are activated at the end of
+ * each register. All actions of one kind are activated before the actions of
+ * the next kind, in the order of the constants of this enum: first all conveyor
+ * belts move the robots on them, then all gears turn the robots on them, and
+ * finally the checkpoints are checked. Within one kind, the spaces are activated
+ * row by row, from the top left to the bottom right of the board.
+ *
+ */
+public enum ActivationOrder {
+
+    CONVEYOR_BELTS, GEARS, CHECKPOINTS
+
+}
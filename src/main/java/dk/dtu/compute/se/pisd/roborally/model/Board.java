@@ -26,6 +26,7 @@ import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static dk.dtu.compute.se.pisd.roborally.model.Phase.INITIALISATION;
 
@@ -49,6 +50,10 @@ public class Board extends Subject {
 
     private final Space[][] spaces;
 
+    // neighbours[4 * (y * width + x) + heading.ordinal()] is the neighbour of the
+    // space at (x, y) in that heading (or the dead space if outside the board)
+    private final Space[] neighbours;
+
     @Expose
     private final List<Player> players = new ArrayList<>();
 
@@ -67,8 +72,17 @@ public class Board extends Subject {
 
     private Space deadSpace;
 
+    private ConveyorGraph conveyorGraph;
+
+    private FieldActionIndex fieldActionIndex;
+
     @Expose
     private String map;
+
+    @Expose
+    private long seed;
+    @Expose
+    private long cardsDealt;
     /**
      * Constructs a new board with the specified dimensions and name.
      *
@@ -89,7 +103,19 @@ public class Board extends Subject {
             }
         }
         deadSpace = new Space(this,-1,-1);
+
+        neighbours = new Space[4 * width * height];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                int index = 4 * (y * width + x);
+                neighbours[index + Heading.SOUTH.ordinal()] = getSpace(x, y + 1);
+                neighbours[index + Heading.WEST.ordinal()] = getSpace(x - 1, y);
+                neighbours[index + Heading.NORTH.ordinal()] = getSpace(x, y - 1);
+                neighbours[index + Heading.EAST.ordinal()] = getSpace(x + 1, y);
+            }
+        }
         numberOfCheckpoints = 0;
+        seed = ThreadLocalRandom.current().nextLong();
 
         this.stepMode = false;
 
@@ -104,6 +130,48 @@ public class Board extends Subject {
         this(width, height, "defaultboard");
     }
 
+    /**
+     * Creates a copy of this board, which has the same layout (walls, field actions,
+     * spawn spaces and checkpoints), players with the same names and colors, and the
+     * same state of the game. The copy has no observers, and it is independent of this
+     * board; the field actions are shared, since they do not have any state. The
+     * {@link FieldActionIndex} refers to the spaces of its board, so the copy builds its
+     * own index when it is needed.
+     * <p>
+     * In order to fork a game many times, it is much cheaper to copy the board only
+     * once and then to {@link BoardState#restore(Board) restore} {@link BoardState}s
+     * to the copy.
+     *
+     * @return the copy of this board
+     */
+    public Board copy() {
+        Board copy = new Board(width, height, boardName);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                Space space = spaces[x][y];
+                Space spaceCopy = copy.spaces[x][y];
+                for (Heading wall : space.getWalls()) {
+                    spaceCopy.addWall(wall);
+                }
+                spaceCopy.setAction(space.getAction());
+            }
+        }
+        for (Space space : spawnSpaces) {
+            copy.addSpawnSpace(copy.getSpace(space.x, space.y));
+        }
+        copy.conveyorGraph = conveyorGraph;
+        copy.numberOfCheckpoints = numberOfCheckpoints;
+        copy.map = map;
+        copy.seed = seed;
+        copy.cardsDealt = cardsDealt;
+
+        for (Player player : players) {
+            copy.addPlayer(new Player(copy, player.getColor(), player.getName()));
+        }
+        BoardState.capture(this).restore(copy);
+        return copy;
+    }
+
     /**
      * Sets the default spawn spaces for the specified maximum number of players.
      * The default is on the first x coordinate and the y is the variable changing depending on the number of players
@@ -161,6 +229,61 @@ public class Board extends Subject {
         }
     }
 
+    /**
+     * Returns the space with the given index, where the index of the space at
+     * (x, y) is <code>y * width + x</code>.
+     *
+     * @param index the index of the space
+     * @return the space with this index, or the dead space if the index is invalid
+     */
+    public Space getSpaceByIndex(int index) {
+        if (index >= 0 && index < width * height) {
+            return spaces[index % width][index / width];
+        } else {
+            return deadSpace;
+        }
+    }
+
+    /**
+     * Returns the graph of the conveyor belts on this board. The graph is
+     * compiled when it is needed for the first time after the layout of the
+     * board has changed.
+     *
+     * @return the graph of the conveyor belts
+     */
+    public ConveyorGraph getConveyorGraph() {
+        ConveyorGraph graph = conveyorGraph;
+        if (graph == null) {
+            graph = ConveyorGraph.compile(this);
+            conveyorGraph = graph;
+        }
+        return graph;
+    }
+
+    /**
+     * Returns the index of the spaces with field actions on this board. The index
+     * is built when it is needed for the first time after the layout of the board
+     * has changed.
+     *
+     * @return the index of the field actions
+     */
+    public FieldActionIndex getFieldActionIndex() {
+        FieldActionIndex index = fieldActionIndex;
+        if (index == null) {
+            index = FieldActionIndex.build(this);
+            fieldActionIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Called by the spaces of this board, when walls or field actions change.
+     */
+    void layoutChanged() {
+        conveyorGraph = null;
+        fieldActionIndex = null;
+    }
+
     public int getPlayersNumber() {
         return players.size();
     }
@@ -270,6 +393,10 @@ public class Board extends Subject {
      * @return the space in the given direction; deadSpace if neighbour is outside boundaries of the board
      */
     public Space getNeighbour(@NotNull Space space, @NotNull Heading heading) {
+        if (space.board == this && space != deadSpace) {
+            return neighbours[4 * (space.y * width + space.x) + heading.ordinal()];
+        }
+
         int x = space.x;
         int y = space.y;
         switch (heading) {
@@ -320,6 +447,43 @@ public class Board extends Subject {
 
 
 
+    /**
+     * Returns the seed of the random generator which deals the command cards of
+     * this game. Together with the number of cards dealt so far, it determines
+     * all cards which are dealt in the rest of the game.
+     *
+     * @return the seed of this game
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Sets the seed of the random generator which deals the command cards. This
+     * must be done before a game controller is created for this board.
+     *
+     * @param seed the new seed of this game
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Returns the number of command cards dealt so far in this game.
+     *
+     * @return the number of cards dealt
+     */
+    public long getCardsDealt() {
+        return cardsDealt;
+    }
+
+    public void setCardsDealt(long cardsDealt) {
+        if (cardsDealt != this.cardsDealt) {
+            this.cardsDealt = cardsDealt;
+            notifyChange();
+        }
+    }
+
     public void setMap(String m) {
         map = m;
     }
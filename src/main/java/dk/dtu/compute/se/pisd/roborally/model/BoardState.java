@@ -0,0 +1,287 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * A compact snapshot of the state of a game on a {@link Board}: the phase, the
+ * step and the current player, and for each player the position, spawn space,
+ * heading, checkpoint, rebooting status and the cards in the registers and in
+ * the hand. The layout of the board (walls and field actions) is not part of
+ * the state, since it does not change during a game.
+ * <p>
+ * The state is packed into a single array of longs: one word for the board and
+ * two words per player. Therefore, a state can be captured, forked and compared
+ * in time proportional to the number of players, which makes it suitable for
+ * searching, previewing and undoing moves. Restoring a state to a board (with
+ * the same layout and the same players) does not allocate any objects.
+ * <p>
+ * The layout of the words is:
+ * <ul>
+ *     <li>board: phase (bits 0-7), step mode (bit 8), step (bits 16-23),
+ *         number of the current player + 1 (bits 24-31), number of players (bits 32-39)
+ *     <li>player, first word: space (bits 0-23), spawn space (bits 24-47), heading (bits 48-49),
+ *         rebooting (bit 50), current checkpoint (bits 51-58); a space is encoded as
+ *         0 for none, 1 for the dead space, and its index on the board + 2 otherwise
+ *     <li>player, second word: 4 bits for each of the program fields followed by
+ *         the card fields; the lower 3 bits are the ordinal of the command + 1 (0 for
+ *         no card), the upper bit is the visibility of the field
+ * </ul>
+ *
+ */
+public final class BoardState {
+
+    private static final int FIELDS = Player.NO_REGISTERS + Player.NO_CARDS;
+
+    private static final int MAX_SPACE = (1 << 24) - 1;
+
+    private static final Command[] COMMANDS = Command.values();
+    private static final Heading[] HEADINGS = Heading.values();
+    private static final Phase[] PHASES = Phase.values();
+
+    // Restoring a card which is not in a field already uses one of these cards,
+    // so that restoring does not allocate. Command cards do not have any state
+    // of their own, so they can be shared.
+    private static final CommandCard[] CARDS = new CommandCard[COMMANDS.length];
+
+    static {
+        if (COMMANDS.length > 7) {
+            throw new IllegalStateException("Commands do not fit into the card encoding");
+        }
+        for (int i = 0; i < COMMANDS.length; i++) {
+            CARDS[i] = new CommandCard(COMMANDS[i]);
+        }
+    }
+
+    private final long[] data;
+
+    private BoardState(long[] data) {
+        this.data = data;
+    }
+
+    /**
+     * Captures the current state of the given board.
+     *
+     * @param board the board
+     * @return the state of the board
+     */
+    public static BoardState capture(@NotNull Board board) {
+        BoardState state = new BoardState(new long[1 + 2 * board.getPlayersNumber()]);
+        state.update(board);
+        return state;
+    }
+
+    /**
+     * Creates a state from an array as returned by {@link #toArray()}. Arrays
+     * with a phase, current player or card which is out of range are rejected,
+     * so that such a state can be restored safely.
+     *
+     * @param data the encoded state
+     * @return the state
+     */
+    public static BoardState of(@NotNull long[] data) {
+        if (data.length < 1 || data.length != 1 + 2 * players(data[0]) || !isValid(data)) {
+            throw new IllegalArgumentException("Not an encoded board state");
+        }
+        return new BoardState(data.clone());
+    }
+
+    private static boolean isValid(long[] data) {
+        int players = players(data[0]);
+        if ((data[0] & 0xFF) >= PHASES.length || (data[0] >>> 24 & 0xFF) > players) {
+            return false;
+        }
+        for (int i = 0; i < players; i++) {
+            long cards = data[2 + 2 * i];
+            for (int j = 0; j < FIELDS; j++) {
+                if ((cards >>> (4 * j) & 7) > COMMANDS.length) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Captures the current state of the given board into this state, without
+     * allocating a new array. The board must have the same number of players as
+     * the board this state was captured from.
+     *
+     * @param board the board
+     */
+    public void update(@NotNull Board board) {
+        int players = board.getPlayersNumber();
+        if (data.length != 1 + 2 * players) {
+            throw new IllegalArgumentException("Board has a different number of players");
+        }
+        Player current = board.getCurrentPlayer();
+        data[0] = board.getPhase().ordinal()
+                | (board.isStepMode() ? 1L : 0L) << 8
+                | (long) (board.getStep() & 0xFF) << 16
+                | (long) ((current == null ? -1 : board.getPlayerNumber(current)) + 1) << 24
+                | (long) players << 32;
+
+        for (int i = 0; i < players; i++) {
+            Player player = board.getPlayer(i);
+            data[1 + 2 * i] = encodeSpace(board, player.getSpace())
+                    | encodeSpace(board, player.getSpawnSpace()) << 24
+                    | (long) player.getHeading().ordinal() << 48
+                    | (player.isRebooting() ? 1L : 0L) << 50
+                    | (long) (player.getCurrentCheckpoint() & 0xFF) << 51;
+
+            long cards = 0;
+            for (int j = 0; j < FIELDS; j++) {
+                CommandCardField field = field(player, j);
+                CommandCard card = field.getCard();
+                long code = (card == null ? 0 : card.command.ordinal() + 1) | (field.isVisible() ? 8 : 0);
+                cards |= code << (4 * j);
+            }
+            data[2 + 2 * i] = cards;
+        }
+    }
+
+    /**
+     * Restores this state to the given board. The board must have the same layout
+     * and the same number of players as the board this state was captured from;
+     * typically, it is the same board or a {@link Board#copy() copy} of it.
+     *
+     * @param board the board
+     */
+    public void restore(@NotNull Board board) {
+        int players = board.getPlayersNumber();
+        if (players != players(data[0])) {
+            throw new IllegalArgumentException("Board has a different number of players");
+        }
+
+        // All players are taken off the board first, so that no player is put on
+        // a space which is still occupied by another player.
+        for (int i = 0; i < players; i++) {
+            board.getPlayer(i).setSpace(null);
+        }
+        for (int i = 0; i < players; i++) {
+            Player player = board.getPlayer(i);
+            long word = data[1 + 2 * i];
+            player.setSpace(decodeSpace(board, (int) (word & MAX_SPACE)));
+            player.setSpawnSpace(decodeSpace(board, (int) (word >>> 24 & MAX_SPACE)));
+            player.setHeading(HEADINGS[(int) (word >>> 48 & 3)]);
+            player.setRebooting((word >>> 50 & 1) != 0);
+            player.setCurrentCheckpoint((int) (word >>> 51 & 0xFF));
+
+            long cards = data[2 + 2 * i];
+            for (int j = 0; j < FIELDS; j++) {
+                int code = (int) (cards >>> (4 * j) & 0xF);
+                CommandCardField field = field(player, j);
+                int command = code & 7;
+                if (command == 0) {
+                    field.setCard(null);
+                } else if (field.getCard() == null || field.getCard().command.ordinal() != command - 1) {
+                    field.setCard(CARDS[command - 1]);
+                }
+                field.setVisible((code & 8) != 0);
+            }
+        }
+
+        long header = data[0];
+        board.setPhase(PHASES[(int) (header & 0xFF)]);
+        board.setStepMode((header >>> 8 & 1) != 0);
+        board.setStep((int) (header >>> 16 & 0xFF));
+        int current = (int) (header >>> 24 & 0xFF) - 1;
+        if (current >= 0) {
+            board.setCurrentPlayer(board.getPlayer(current));
+        }
+    }
+
+    /**
+     * Returns an independent copy of this state.
+     *
+     * @return the copy
+     */
+    public BoardState fork() {
+        return new BoardState(data.clone());
+    }
+
+    /**
+     * Returns a copy of the encoded state.
+     *
+     * @return the encoded state
+     */
+    public long[] toArray() {
+        return data.clone();
+    }
+
+    public int getPlayersNumber() {
+        return players(data[0]);
+    }
+
+    public Phase getPhase() {
+        return PHASES[(int) (data[0] & 0xFF)];
+    }
+
+    public int getStep() {
+        return (int) (data[0] >>> 16 & 0xFF);
+    }
+
+    private static int players(long header) {
+        return (int) (header >>> 32 & 0xFF);
+    }
+
+    private static CommandCardField field(Player player, int j) {
+        return j < Player.NO_REGISTERS ? player.getProgramField(j) : player.getCardField(j - Player.NO_REGISTERS);
+    }
+
+    private static long encodeSpace(Board board, Space space) {
+        if (space == null) {
+            return 0;
+        } else if (space == board.getDeadSpace()) {
+            return 1;
+        }
+        long index = (long) space.y * board.width + space.x + 2;
+        if (index > MAX_SPACE) {
+            throw new IllegalArgumentException("Board is too large for the state encoding");
+        }
+        return index;
+    }
+
+    private static Space decodeSpace(Board board, int code) {
+        if (code == 0) {
+            return null;
+        } else if (code == 1) {
+            return board.getDeadSpace();
+        }
+        int index = code - 2;
+        return board.getSpace(index % board.width, index / board.width);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof BoardState && Arrays.equals(data, ((BoardState) other).data);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(data);
+    }
+
+}
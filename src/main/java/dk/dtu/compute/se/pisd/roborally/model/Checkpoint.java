@@ -64,4 +64,9 @@ public class Checkpoint extends FieldAction {
         }
         return false;
     }
+
+    @Override
+    public ActivationOrder getActivationOrder() {
+        return ActivationOrder.CHECKPOINTS;
+    }
 }
@@ -24,9 +24,6 @@ package dk.dtu.compute.se.pisd.roborally.model;
 import dk.dtu.compute.se.pisd.roborally.controller.GameController;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Class representing a ConveyorBelt action on a game field.
  *
@@ -36,7 +33,6 @@ import java.util.List;
 public class ConveyorBelt extends FieldAction {
     private Heading heading;
 
-    private Space target;
     /**
      * Constructs a ConveyorBelt action with a specified heading.
      *
@@ -54,32 +50,22 @@ public class ConveyorBelt extends FieldAction {
         this.heading = heading;
     }
     /**
-     * Returns the target Space of this ConveyorBelt action.
-     *
-     * @return the target Space
-     */
-    public Space getTarget() {
-        return target;
-    };
-    /**
-     * Executes the ConveyorBelt action on a given Space in a specified GameController.
-     * Moves the player to the target space if it is reachable and not occupied.
+     * Does nothing: conveyor belts are not activated one by one, since all players on
+     * belts are moved at the same time. The engine resolves the belts of a board on its
+     * {@link ConveyorGraph} instead (see <code>handleConveyorMove</code> of the
+     * {@link GameController}).
      *
      * @param gameController the GameController to execute the action in
      * @param space the Space to execute the action on
-     * @return true if the action is successfully executed, false otherwise
+     * @return always false
      */
     @Override
     public boolean doAction(@NotNull GameController gameController, @NotNull Space space) {
+        return false;
+    }
 
-        target = gameController.board.getNeighbour(space, heading);
-
-        if (target != null) {
-            boolean reachable = !target.getWalls().contains(heading.opposing());
-            boolean notOccupied = target.getPlayer() == null;
-            return notOccupied && reachable;
-        }
-        //Meaning it has moved the player outside board
-        return true;
+    @Override
+    public ActivationOrder getActivationOrder() {
+        return ActivationOrder.CONVEYOR_BELTS;
     }
 }
@@ -0,0 +1,170 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * The network of {@link ConveyorBelt}s of a board, compiled into primitive arrays.
+ * For each belt, the graph knows the space it is on, its heading, the space it moves
+ * a robot to (its successor in a chain; several belts with the same successor form
+ * a merge), and whether this move is blocked by a wall.
+ * <p>
+ * Spaces are identified by their index <code>y * width + x</code> on the board; the
+ * successor of a belt which leads off the board is {@link #OFF_BOARD}.
+ * <p>
+ * The graph is immutable and depends on the layout of the board only, not on the
+ * state of a game. Therefore, it can be shared by all games on the same layout
+ * (see {@link Board#copy()}).
+ *
+ */
+public final class ConveyorGraph {
+
+    /**
+     * The successor of a belt which moves robots off the board.
+     */
+    public static final int OFF_BOARD = -1;
+
+    private final int width;
+
+    // belt number for each space of the board, -1 for spaces without a belt
+    private final int[] beltAt;
+
+    private final int[] space;
+    private final int[] successor;
+    private final Heading[] heading;
+    private final boolean[] blocked;
+
+    private ConveyorGraph(int width, int[] beltAt, int[] space, int[] successor, Heading[] heading, boolean[] blocked) {
+        this.width = width;
+        this.beltAt = beltAt;
+        this.space = space;
+        this.successor = successor;
+        this.heading = heading;
+        this.blocked = blocked;
+    }
+
+    /**
+     * Compiles the graph of the conveyor belts on the given board.
+     *
+     * @param board the board
+     * @return the graph of the belts on the board
+     */
+    public static ConveyorGraph compile(@NotNull Board board) {
+        int[] beltAt = new int[board.width * board.height];
+        Arrays.fill(beltAt, -1);
+
+        int belts = 0;
+        for (int y = 0; y < board.height; y++) {
+            for (int x = 0; x < board.width; x++) {
+                if (board.getSpace(x, y).getAction() instanceof ConveyorBelt) {
+                    beltAt[y * board.width + x] = belts++;
+                }
+            }
+        }
+
+        int[] space = new int[belts];
+        int[] successor = new int[belts];
+        Heading[] heading = new Heading[belts];
+        boolean[] blocked = new boolean[belts];
+        for (int index = 0; index < beltAt.length; index++) {
+            int belt = beltAt[index];
+            if (belt >= 0) {
+                Space source = board.getSpace(index % board.width, index / board.width);
+                Heading beltHeading = ((ConveyorBelt) source.getAction()).getHeading();
+                Space target = board.getNeighbour(source, beltHeading);
+
+                space[belt] = index;
+                heading[belt] = beltHeading;
+                if (target == board.getDeadSpace()) {
+                    successor[belt] = OFF_BOARD;
+                    blocked[belt] = source.hasWall(beltHeading);
+                } else {
+                    successor[belt] = target.y * board.width + target.x;
+                    blocked[belt] = source.hasWall(beltHeading) || target.hasWall(beltHeading.opposing());
+                }
+            }
+        }
+        return new ConveyorGraph(board.width, beltAt, space, successor, heading, blocked);
+    }
+
+    /**
+     * Returns the number of belts in this graph.
+     *
+     * @return the number of belts
+     */
+    public int size() {
+        return space.length;
+    }
+
+    /**
+     * Returns the number of the belt on the given space.
+     *
+     * @param space a space of the board
+     * @return the number of the belt on this space, or -1 if there is no belt on it
+     */
+    public int beltAt(@NotNull Space space) {
+        if (space.x < 0 || space.y < 0) {
+            return -1;
+        }
+        int index = space.y * width + space.x;
+        return index < beltAt.length ? beltAt[index] : -1;
+    }
+
+    /**
+     * Returns the index of the space the given belt is on.
+     *
+     * @param belt the number of the belt
+     * @return the index of the space of this belt
+     */
+    public int getSpace(int belt) {
+        return space[belt];
+    }
+
+    /**
+     * Returns the index of the space the given belt moves robots to.
+     *
+     * @param belt the number of the belt
+     * @return the index of the successor space, or {@link #OFF_BOARD}
+     */
+    public int getSuccessor(int belt) {
+        return successor[belt];
+    }
+
+    public Heading getHeading(int belt) {
+        return heading[belt];
+    }
+
+    /**
+     * Returns whether the move of the given belt is blocked by a wall on the
+     * space of the belt or on its successor.
+     *
+     * @param belt the number of the belt
+     * @return true if the belt cannot move robots, false otherwise
+     */
+    public boolean isBlocked(int belt) {
+        return blocked[belt];
+    }
+
+}
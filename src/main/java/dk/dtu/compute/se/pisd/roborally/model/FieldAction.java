@@ -42,4 +42,12 @@ public abstract class FieldAction {
      */
     public abstract boolean doAction(GameController gameController, Space space);
 
+    /**
+     * Returns when this field action is activated at the end of a register,
+     * relative to the other kinds of field actions.
+     *
+     * @return the activation order of this action
+     */
+    public abstract ActivationOrder getActivationOrder();
+
 }
@@ -0,0 +1,99 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The spaces of a board which have a field action, grouped by the
+ * {@link ActivationOrder} of their actions. The index is built once for the
+ * layout of a board, so that activating the field actions does not need to
+ * look at every space or at the type of every action.
+ * <p>
+ * Like the {@link ConveyorGraph}, the index depends on the layout of the board
+ * only, and it is immutable. Unlike the graph, it refers to the spaces of the
+ * board it was built for, and must not be shared with copies of the board.
+ *
+ */
+public final class FieldActionIndex {
+
+    private static final ActivationOrder[] ORDERS = ActivationOrder.values();
+
+    private final Space[][] spaces;
+
+    private FieldActionIndex(Space[][] spaces) {
+        this.spaces = spaces;
+    }
+
+    /**
+     * Builds the index of the field actions of the given board.
+     *
+     * @param board the board
+     * @return the index of the field actions on the board
+     */
+    public static FieldActionIndex build(@NotNull Board board) {
+        List<List<Space>> lists = new ArrayList<>();
+        for (int i = 0; i < ORDERS.length; i++) {
+            lists.add(new ArrayList<>());
+        }
+        for (int y = 0; y < board.height; y++) {
+            for (int x = 0; x < board.width; x++) {
+                Space space = board.getSpace(x, y);
+                FieldAction action = space.getAction();
+                if (action != null) {
+                    lists.get(action.getActivationOrder().ordinal()).add(space);
+                }
+            }
+        }
+
+        Space[][] spaces = new Space[ORDERS.length][];
+        for (int i = 0; i < ORDERS.length; i++) {
+            spaces[i] = lists.get(i).toArray(new Space[0]);
+        }
+        return new FieldActionIndex(spaces);
+    }
+
+    /**
+     * Returns the spaces with actions of the given kind, in activation order.
+     * The returned array must not be modified.
+     *
+     * @param order the kind of actions
+     * @return the spaces with such actions
+     */
+    public Space[] getSpaces(@NotNull ActivationOrder order) {
+        return spaces[order.ordinal()];
+    }
+
+    /**
+     * Returns the number of spaces with actions of the given kind.
+     *
+     * @param order the kind of actions
+     * @return the number of spaces with such actions
+     */
+    public int count(@NotNull ActivationOrder order) {
+        return spaces[order.ordinal()].length;
+    }
+
+}
@@ -0,0 +1,182 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A recording of a game as a sequence of frames, each of which is the
+ * {@link BoardState} of the game after a step. Every {@link #KEYFRAME_INTERVAL}th
+ * frame is stored completely (a keyframe); the frames in between are stored as
+ * the words of the encoded state, which changed since the frame before (a delta).
+ * Typically, a step changes only two or three words of the state, so the
+ * recording of a long game is small.
+ * <p>
+ * Any frame can be restored to a board directly, without executing the game
+ * again: the nearest keyframe before the frame is decoded, and at most
+ * {@link #KEYFRAME_INTERVAL} - 1 deltas are applied to it.
+ * <p>
+ * Frames are appended by the thread which runs the game and may be read by
+ * other threads at the same time.
+ *
+ */
+public final class GameRecording {
+
+    /**
+     * The number of frames from one keyframe to the next.
+     */
+    public static final int KEYFRAME_INTERVAL = 32;
+
+    private static final int[] NO_INDICES = new int[0];
+    private static final long[] NO_VALUES = new long[0];
+
+    private final List<long[]> keyframes = new ArrayList<>();
+
+    private final List<int[]> deltaIndices = new ArrayList<>();
+    private final List<long[]> deltaValues = new ArrayList<>();
+
+    private int[] rounds = new int[64];
+
+    private int size;
+
+    private int round;
+
+    private long[] last;
+
+    private Phase lastPhase;
+
+    /**
+     * Appends a frame to the recording.
+     *
+     * @param state the state of the game
+     */
+    public synchronized void append(@NotNull BoardState state) {
+        long[] data = state.toArray();
+        if (last != null && last.length != data.length) {
+            throw new IllegalArgumentException("The number of players of a game can not change");
+        }
+
+        Phase phase = state.getPhase();
+        if (phase == Phase.PROGRAMMING && lastPhase != Phase.PROGRAMMING) {
+            round++;
+        }
+        lastPhase = phase;
+        if (size == rounds.length) {
+            rounds = Arrays.copyOf(rounds, 2 * size);
+        }
+        rounds[size] = round;
+
+        if (size % KEYFRAME_INTERVAL == 0) {
+            keyframes.add(data);
+            deltaIndices.add(NO_INDICES);
+            deltaValues.add(NO_VALUES);
+        } else {
+            int changed = 0;
+            for (int i = 0; i < data.length; i++) {
+                if (data[i] != last[i]) changed++;
+            }
+            int[] indices = changed == 0 ? NO_INDICES : new int[changed];
+            long[] values = changed == 0 ? NO_VALUES : new long[changed];
+            for (int i = 0, j = 0; i < data.length; i++) {
+                if (data[i] != last[i]) {
+                    indices[j] = i;
+                    values[j++] = data[i];
+                }
+            }
+            deltaIndices.add(indices);
+            deltaValues.add(values);
+        }
+        last = data;
+        size++;
+    }
+
+    /**
+     * Returns the number of frames of this recording.
+     *
+     * @return the number of frames
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Returns the round of the game, in which the given frame was recorded;
+     * the first round is 1.
+     *
+     * @param frame the number of the frame
+     * @return the round of the frame
+     */
+    public synchronized int getRound(int frame) {
+        checkFrame(frame);
+        return rounds[frame];
+    }
+
+    /**
+     * Returns the state of the game in the given frame.
+     *
+     * @param frame the number of the frame
+     * @return the state of the game
+     */
+    public synchronized BoardState getState(int frame) {
+        checkFrame(frame);
+        long[] data = keyframes.get(frame / KEYFRAME_INTERVAL).clone();
+        for (int f = frame - frame % KEYFRAME_INTERVAL + 1; f <= frame; f++) {
+            int[] indices = deltaIndices.get(f);
+            long[] values = deltaValues.get(f);
+            for (int i = 0; i < indices.length; i++) {
+                data[indices[i]] = values[i];
+            }
+        }
+        return BoardState.of(data);
+    }
+
+    /**
+     * Restores the state of the game in the given frame to the board, which must
+     * have the same layout and players as the recorded game (see
+     * {@link BoardState#restore(Board)}). The observers of the board are notified
+     * once for each object which changed.
+     *
+     * @param frame the number of the frame
+     * @param board the board
+     */
+    public void seek(int frame, @NotNull Board board) {
+        BoardState state = getState(frame);
+        Subject.beginBatch();
+        try {
+            state.restore(board);
+        } finally {
+            Subject.commitBatch();
+        }
+    }
+
+    private void checkFrame(int frame) {
+        if (frame < 0 || frame >= size) {
+            throw new IndexOutOfBoundsException("Frame " + frame + " of " + size);
+        }
+    }
+
+}
@@ -25,4 +25,9 @@ public class Gear extends FieldAction{
         return true;
     }
 
+    @Override
+    public ActivationOrder getActivationOrder() {
+        return ActivationOrder.GEARS;
+    }
+
 }
@@ -27,19 +27,24 @@ package dk.dtu.compute.se.pisd.roborally.model;
 public enum Heading {
 
     SOUTH, WEST, NORTH, EAST;
+
+    // values() creates a new array on every call; the headings are computed
+    // for every move, so the array is created only once
+    private static final Heading[] VALUES = values();
+
     /**
      * Returns the opposite heading of the current heading.
      *
      * @return Heading which is opposite to the current heading.
      */
-    public Heading opposing() { return values()[(this.ordinal()+2) % values().length]; }
+    public Heading opposing() { return VALUES[(this.ordinal()+2) % VALUES.length]; }
     /**
      * Returns next heading in clockwise order.
      *
      * @return Next heading.
      */
     public Heading next() {
-        return values()[(this.ordinal() + 1) % values().length];
+        return VALUES[(this.ordinal() + 1) % VALUES.length];
     }
     /**
      * Returns previous heading in counterclockwise order.
@@ -47,7 +52,27 @@ public enum Heading {
      * @return Previous heading.
      */
     public Heading prev() {
-        return values()[(this.ordinal() + values().length - 1) % values().length];
+        return VALUES[(this.ordinal() + VALUES.length - 1) % VALUES.length];
+    }
+
+    /**
+     * Returns the bit of this heading in a bit mask of headings, as used for
+     * the walls of a {@link Space}.
+     *
+     * @return the bit of this heading
+     */
+    public int mask() {
+        return 1 << this.ordinal();
+    }
+
+    /**
+     * Returns the heading with the given ordinal.
+     *
+     * @param ordinal the ordinal of the heading
+     * @return the heading
+     */
+    public static Heading of(int ordinal) {
+        return VALUES[ordinal];
     }
 
 
@@ -90,10 +90,18 @@ public class Player extends Subject {
         return name;
     }
 
-    public void setCurrentCheckpoint(int n) {currentCheckpoint = n;}
+    public void setCurrentCheckpoint(int n) {
+        if (n != currentCheckpoint) {
+            currentCheckpoint = n;
+            notifyChange();
+        }
+    }
 
     public void setSpawnSpace(Space spawnSpace) {
-        this.spawnSpace = spawnSpace;
+        if (spawnSpace != this.spawnSpace) {
+            this.spawnSpace = spawnSpace;
+            notifyChange();
+        }
     }
     /**
      * Returns the player's current spawn location.
@@ -185,7 +193,10 @@ public class Player extends Subject {
     }
 
     public void setRebooting(boolean rebooting) {
-        this.rebooting = rebooting;
+        if (rebooting != this.rebooting) {
+            this.rebooting = rebooting;
+            notifyChange();
+        }
     }
     /**
      * Returns whether the player is currently rebooting or not.
@@ -24,7 +24,7 @@ package dk.dtu.compute.se.pisd.roborally.model;
 import com.google.gson.annotations.Expose;
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
 import java.util.List;
 
 /**
@@ -39,7 +39,10 @@ public class Space extends Subject {
 
     public final Board board;
 
-    private List<Heading> walls = new ArrayList<>();
+    // the walls are stored as a bit mask of their headings (see Heading.mask())
+    private int walls;
+
+    private List<Heading> wallsView;
 
     private FieldAction action;
 
@@ -94,9 +97,39 @@ public class Space extends Subject {
             notifyChange();
         }
     }
+    /**
+     * Returns the headings of the walls on this space. The list is an unmodifiable
+     * view, which reflects walls added later; walls are added with {@link #addWall(Heading)}.
+     *
+     * @return the headings of the walls
+     */
     public List<Heading> getWalls() {
+        if (wallsView == null) {
+            wallsView = new WallsView();
+        }
+        return wallsView;
+    }
+
+    /**
+     * Returns whether there is a wall in the specified heading on this space.
+     *
+     * @param heading the heading
+     * @return true if there is a wall in this heading, false otherwise
+     */
+    public boolean hasWall(Heading heading) {
+        return (walls & heading.mask()) != 0;
+    }
+
+    /**
+     * Returns the walls of this space as a bit mask, in which the bit
+     * {@link Heading#mask()} is set for each heading with a wall.
+     *
+     * @return the bit mask of the walls
+     */
+    public int getWallMask() {
         return walls;
     }
+
     /**
      * Adds a wall in the specified heading on this space.
      * If a wall already exists in that direction, this method does nothing.
@@ -104,8 +137,11 @@ public class Space extends Subject {
      * @param heading the direction in which to place the wall
      */
     public void addWall(Heading heading) {
-        if ( ! walls.contains(heading)) {
-            walls.add(heading);
+        if (!hasWall(heading)) {
+            walls |= heading.mask();
+            if (board != null) {
+                board.layoutChanged();
+            }
             notifyChange();
         }
     }
@@ -117,6 +153,9 @@ public class Space extends Subject {
      */
     public void setAction(FieldAction action) {
         this.action = action;
+        if (board != null) {
+            board.layoutChanged();
+        }
     }
 
     public FieldAction getAction() {
@@ -161,6 +200,36 @@ public class Space extends Subject {
 
      */
 
+    /**
+     * Read-only list view of the bit mask of walls, in the order of the headings.
+     */
+    private class WallsView extends AbstractList<Heading> {
+
+        @Override
+        public Heading get(int index) {
+            int mask = walls;
+            for (int i = 0; mask != 0; i++) {
+                int heading = Integer.numberOfTrailingZeros(mask);
+                if (i == index) {
+                    return Heading.of(heading);
+                }
+                mask &= mask - 1;
+            }
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+
+        @Override
+        public int size() {
+            return Integer.bitCount(walls);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Heading && hasWall((Heading) o);
+        }
+
+    }
+
     void playerChanged() {
         // This is a minor hack; since some views that are registered with the space
         // also need to update when some player attributes change, the player can
@@ -0,0 +1,202 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.controller.GameListener;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Runs many complete games on a board in parallel, in order to estimate the
+ * length of games, the distribution of wins and the rate of reboots.
+ * <p>
+ * Each game runs on its own {@link Board} and {@link GameController}, created
+ * by the board factory, and with its own random generator; the games do not
+ * share any mutable state and run headless. The games are spread over a
+ * fork-join pool, and their results are merged into lock-free
+ * {@link SimulationStatistics}.
+ * <p>
+ * The random generator of each game is derived from the seed of the run and
+ * the number of the game only. Therefore, a run with the same seed always
+ * yields the same statistics, independently of the parallelism.
+ *
+ */
+public class MonteCarloRunner {
+
+    private static final List<String> PLAYER_COLORS = Arrays.asList("red", "green", "blue", "orange", "grey", "magenta");
+
+    private final Supplier<Board> boardFactory;
+    private final int players;
+    private final ProgramStrategy strategy;
+    private final int maxRounds;
+    private final int parallelism;
+
+    /**
+     * Creates a runner which uses all available processors.
+     *
+     * @param boardFactory creates a new, empty board for each game
+     * @param players the number of players in each game
+     * @param strategy the strategy of the players
+     * @param maxRounds the number of rounds after which a game without a winner is stopped
+     */
+    public MonteCarloRunner(@NotNull Supplier<Board> boardFactory, int players, @NotNull ProgramStrategy strategy, int maxRounds) {
+        this(boardFactory, players, strategy, maxRounds, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a runner.
+     *
+     * @param boardFactory creates a new, empty board for each game
+     * @param players the number of players in each game
+     * @param strategy the strategy of the players
+     * @param maxRounds the number of rounds after which a game without a winner is stopped
+     * @param parallelism the number of threads running games
+     */
+    public MonteCarloRunner(@NotNull Supplier<Board> boardFactory, int players, @NotNull ProgramStrategy strategy,
+                            int maxRounds, int parallelism) {
+        if (players < 1 || players > PLAYER_COLORS.size()) {
+            throw new IllegalArgumentException("Number of players must be between 1 and " + PLAYER_COLORS.size());
+        }
+        this.boardFactory = boardFactory;
+        this.players = players;
+        this.strategy = strategy;
+        this.maxRounds = maxRounds;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the given number of games and returns their statistics.
+     *
+     * @param games the number of games
+     * @param seed the seed of this run
+     * @return the statistics of all games
+     */
+    public SimulationStatistics run(int games, long seed) {
+        SimulationStatistics statistics = new SimulationStatistics(players);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.submit(() -> IntStream.range(0, games).parallel()
+                    .forEach(game -> playGame(gameSeed(seed, game), statistics)))
+                    .join();
+        } finally {
+            pool.shutdown();
+        }
+        return statistics;
+    }
+
+    /**
+     * Plays a single game until a player wins or the maximum number of rounds
+     * is reached, and records its result.
+     *
+     * @param seed the seed of the game
+     * @param statistics the statistics to record the result in
+     */
+    void playGame(long seed, @NotNull SimulationStatistics statistics) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Board board = boardFactory.get();
+        board.setSeed(random.nextLong());
+        GameController gameController = new GameController(board);
+        RebootCounter reboots = new RebootCounter();
+        gameController.addGameListener(reboots);
+        gameController.initialize(players, PLAYER_COLORS);
+
+        int rounds = 0;
+        while (board.getPhase() != Phase.FINISHED && rounds < maxRounds) {
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                strategy.program(gameController, board.getPlayer(i), random);
+            }
+            gameController.finishProgrammingPhase();
+            gameController.executePrograms();
+            while (board.getPhase() == Phase.PLAYER_INTERACTION) {
+                Player player = board.getCurrentPlayer();
+                Command command = player.getProgramField(board.getStep()).getCard().command;
+                gameController.executeCommandOptionAndContinue(player,
+                        strategy.chooseOption(gameController, player, command, random));
+            }
+            rounds++;
+        }
+
+        Player winner = gameController.getWinner();
+        statistics.record(rounds, winner == null ? -1 : board.getPlayerNumber(winner), reboots.count);
+    }
+
+    /**
+     * Derives the seed of a game from the seed of the run and the number of the
+     * game, by mixing both (this is the finalizer of the SplitMix64 generator).
+     */
+    static long gameSeed(long seed, int game) {
+        long z = seed + (game + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static class RebootCounter implements GameListener {
+
+        private int count;
+
+        @Override
+        public void playerRebooted(@NotNull Player player) {
+            count++;
+        }
+
+    }
+
+    /**
+     * Runs a simulation from the command line, without a user interface. The
+     * arguments are the name of the board, the number of players, the number of
+     * games, and optionally the maximum number of rounds per game and the seed.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: MonteCarloRunner <board> <players> <games> [<max rounds> [<seed>]]");
+            return;
+        }
+        String boardName = args[0];
+        int players = Integer.parseInt(args[1]);
+        int games = Integer.parseInt(args[2]);
+        int maxRounds = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+
+        MonteCarloRunner runner = new MonteCarloRunner(() -> LoadBoard.loadBoard(boardName), players,
+                ProgramStrategy.RANDOM, maxRounds);
+        long start = System.nanoTime();
+        SimulationStatistics statistics = runner.run(games, seed);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.println("Board: " + boardName + ", seed: " + seed);
+        System.out.print(statistics);
+        System.out.println("Time: " + millis + " ms (" + (games * 1000L / Math.max(1, millis)) + " games/s)");
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Command;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Decides how the players of a simulated game program their registers and which
+ * option they choose for interactive command cards. A scripted strategy can be
+ * used to replay fixed programs; {@link #RANDOM} plays random programs.
+ *
+ */
+public interface ProgramStrategy {
+
+    /**
+     * Programs the registers of the given player from the command cards in the
+     * player's hand. This is called for each player in the programming phase;
+     * cards should be moved with {@link GameController#moveCards}.
+     *
+     * @param gameController the game controller of the simulated game
+     * @param player the player to program
+     * @param random the random generator of the simulated game
+     */
+    void program(@NotNull GameController gameController, @NotNull Player player, @NotNull SplittableRandom random);
+
+    /**
+     * Chooses one of the options of an interactive command card. By default,
+     * a random option is chosen.
+     *
+     * @param gameController the game controller of the simulated game
+     * @param player the player whose card is executed
+     * @param command the interactive command
+     * @param random the random generator of the simulated game
+     * @return the chosen option
+     */
+    default Command chooseOption(@NotNull GameController gameController, @NotNull Player player,
+                                 @NotNull Command command, @NotNull SplittableRandom random) {
+        List<Command> options = command.getOptions();
+        return options.get(random.nextInt(options.size()));
+    }
+
+    /**
+     * Puts randomly chosen cards of the player's hand into the registers.
+     */
+    ProgramStrategy RANDOM = (gameController, player, random) -> {
+        for (int i = 0; i < Player.NO_REGISTERS; i++) {
+            // start at a random card and take the first card from there on
+            int start = random.nextInt(Player.NO_CARDS);
+            for (int j = 0; j < Player.NO_CARDS; j++) {
+                int card = (start + j) % Player.NO_CARDS;
+                if (gameController.moveCards(player.getCardField(card), player.getProgramField(i))) {
+                    break;
+                }
+            }
+        }
+    };
+
+}
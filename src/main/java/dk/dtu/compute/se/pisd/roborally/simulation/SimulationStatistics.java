@@ -0,0 +1,155 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The statistics of many simulated games. The results of the individual games
+ * are recorded concurrently by the threads running the games; all counters
+ * are lock-free accumulators, so that recording a game never blocks.
+ *
+ */
+public class SimulationStatistics {
+
+    private final LongAdder games = new LongAdder();
+    private final LongAdder undecided = new LongAdder();
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder reboots = new LongAdder();
+    private final LongAccumulator minRounds = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator maxRounds = new LongAccumulator(Math::max, 0);
+    private final AtomicLongArray wins;
+
+    /**
+     * Creates empty statistics for games with the given number of players.
+     *
+     * @param players the number of players of each game
+     */
+    public SimulationStatistics(int players) {
+        wins = new AtomicLongArray(players);
+    }
+
+    /**
+     * Records the result of a single game.
+     *
+     * @param rounds the number of rounds the game took
+     * @param winner the number of the player who won the game, or -1 if the
+     *               game was stopped before anybody won
+     * @param reboots the number of reboots in the game
+     */
+    public void record(int rounds, int winner, int reboots) {
+        games.increment();
+        this.rounds.add(rounds);
+        this.reboots.add(reboots);
+        minRounds.accumulate(rounds);
+        maxRounds.accumulate(rounds);
+        if (winner >= 0) {
+            wins.incrementAndGet(winner);
+        } else {
+            undecided.increment();
+        }
+    }
+
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * Returns the number of games which were stopped after the maximum number
+     * of rounds, without a winner.
+     *
+     * @return the number of undecided games
+     */
+    public long getUndecided() {
+        return undecided.sum();
+    }
+
+    public long getWins(int player) {
+        return wins.get(player);
+    }
+
+    public int getPlayers() {
+        return wins.length();
+    }
+
+    /**
+     * Returns the share of all games which the given player won.
+     *
+     * @param player the number of the player
+     * @return the win rate of the player between 0 and 1
+     */
+    public double getWinRate(int player) {
+        long games = getGames();
+        return games == 0 ? 0 : (double) getWins(player) / games;
+    }
+
+    public long getTotalRounds() {
+        return rounds.sum();
+    }
+
+    public double getAverageRounds() {
+        long games = getGames();
+        return games == 0 ? 0 : (double) getTotalRounds() / games;
+    }
+
+    public long getMinRounds() {
+        return getGames() == 0 ? 0 : minRounds.get();
+    }
+
+    public long getMaxRounds() {
+        return maxRounds.get();
+    }
+
+    public long getTotalReboots() {
+        return reboots.sum();
+    }
+
+    /**
+     * Returns the average number of reboots per round of a game (counting the
+     * reboots of all players).
+     *
+     * @return the reboots per round
+     */
+    public double getRebootsPerRound() {
+        long rounds = getTotalRounds();
+        return rounds == 0 ? 0 : (double) getTotalReboots() / rounds;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        result.append("Games: ").append(getGames())
+                .append(", undecided: ").append(getUndecided()).append('\n')
+                .append("Rounds: avg ").append(String.format("%.2f", getAverageRounds()))
+                .append(", min ").append(getMinRounds())
+                .append(", max ").append(getMaxRounds()).append('\n')
+                .append("Reboots per round: ").append(String.format("%.3f", getRebootsPerRound())).append('\n');
+        for (int i = 0; i < getPlayers(); i++) {
+            result.append("Player ").append(i + 1).append(" wins: ").append(getWins(i))
+                    .append(String.format(" (%.1f%%)", 100 * getWinRate(i))).append('\n');
+        }
+        return result.toString();
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.BitSet;
+
+/**
+ * A view of the board, which draws the spaces into a single {@link Canvas}
+ * instead of creating a node for every space (see {@link SpaceView}). This
+ * way, also boards with tens of thousands of spaces can be shown.
+ * <p>
+ * The canvas has the size of the visible part of the board (the viewport)
+ * only, and only the spaces in the viewport are drawn. When a space
+ * changes, only that space is drawn again, once per frame at most. The
+ * board can be moved by dragging it with the mouse (pan), and scaled with
+ * the scroll wheel (zoom).
+ * <p>
+ * Like the {@link BoardView} with its {@link SpaceView}s, this view is an
+ * observer of the board and of all its spaces.
+ *
+ */
+public class BoardCanvasView extends Pane implements ViewObserver {
+
+    final public static double MIN_SCALE = 0.1;
+    final public static double MAX_SCALE = 4.0;
+
+    final private static double ZOOM_FACTOR = 1.1;
+
+    private static final Heading[] HEADINGS = Heading.values();
+
+    private final GameController gameController;
+
+    private final Board board;
+
+    private final Canvas canvas = new Canvas();
+
+    private final BitSet dirty = new BitSet();
+
+    private boolean repaintAll = true;
+
+    private boolean paintScheduled;
+
+    // the position of the top left corner of the viewport on the (scaled) board
+    private double offsetX;
+    private double offsetY;
+
+    private double scale = 1.0;
+
+    private double dragX;
+    private double dragY;
+
+    public BoardCanvasView(@NotNull GameController gameController) {
+        this.gameController = gameController;
+        this.board = gameController.board;
+
+        getChildren().add(canvas);
+
+        // only the viewport is shown
+        Rectangle clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+
+        widthProperty().addListener((observable, oldValue, newValue) -> resize());
+        heightProperty().addListener((observable, oldValue, newValue) -> resize());
+
+        setOnMousePressed(this::mousePressed);
+        setOnMouseDragged(this::mouseDragged);
+        setOnMouseClicked(this::mouseClicked);
+        setOnScroll(this::scroll);
+
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                board.getSpace(x, y).attach(this);
+            }
+        }
+        board.attach(this);
+    }
+
+    @Override
+    public void updateView(Subject subject) {
+        if (subject instanceof Space) {
+            Space space = (Space) subject;
+            if (space.board == board && space != board.getDeadSpace()) {
+                dirty.set(space.y * board.width + space.x);
+                schedulePaint();
+            }
+        }
+        // changes of the board itself (phase, step, ...) are not shown on the canvas
+    }
+
+    /**
+     * Returns the scale of the view; 1.0 shows the spaces with their
+     * normal size ({@link SpaceView#SPACE_WIDTH}).
+     *
+     * @return the scale of the view
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Sets the scale of the view, keeping the given point of the viewport
+     * at the same position of the board.
+     *
+     * @param scale the new scale, which is limited to the range from
+     *              {@link #MIN_SCALE} to {@link #MAX_SCALE}
+     * @param pivotX the x coordinate of the point in the viewport
+     * @param pivotY the y coordinate of the point in the viewport
+     */
+    public void setScale(double scale, double pivotX, double pivotY) {
+        double newScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, scale));
+        double factor = newScale / this.scale;
+        this.scale = newScale;
+        offsetX = (offsetX + pivotX) * factor - pivotX;
+        offsetY = (offsetY + pivotY) * factor - pivotY;
+        clampOffset();
+        repaintAll();
+    }
+
+    /**
+     * Returns the space shown at the given point of the viewport.
+     *
+     * @param x the x coordinate of the point
+     * @param y the y coordinate of the point
+     * @return the space at the point, or null if there is no space
+     */
+    public Space getSpaceAt(double x, double y) {
+        double size = tileSize();
+        int column = (int) Math.floor((x + offsetX) / size);
+        int row = (int) Math.floor((y + offsetY) / size);
+        return board.getSpace(column, row);
+    }
+
+    private double tileSize() {
+        return SpaceView.SPACE_WIDTH * scale;
+    }
+
+    private void resize() {
+        canvas.setWidth(getWidth());
+        canvas.setHeight(getHeight());
+        clampOffset();
+        repaintAll();
+    }
+
+    private void clampOffset() {
+        double size = tileSize();
+        double maxX = Math.max(0, board.width * size - getWidth());
+        double maxY = Math.max(0, board.height * size - getHeight());
+        offsetX = Math.max(0, Math.min(maxX, offsetX));
+        offsetY = Math.max(0, Math.min(maxY, offsetY));
+    }
+
+    private void mousePressed(MouseEvent event) {
+        dragX = event.getX();
+        dragY = event.getY();
+    }
+
+    private void mouseDragged(MouseEvent event) {
+        offsetX -= event.getX() - dragX;
+        offsetY -= event.getY() - dragY;
+        dragX = event.getX();
+        dragY = event.getY();
+        clampOffset();
+        repaintAll();
+        event.consume();
+    }
+
+    // XXX like the SpaceEventHandler of the BoardView, this should eventually be deleted! This
+    //     is just to help test the behaviour of the game by being able to explicitly move the players.
+    private void mouseClicked(MouseEvent event) {
+        if (event.isStillSincePress()) {
+            Space space = getSpaceAt(event.getX(), event.getY());
+            if (space != null) {
+                gameController.moveCurrentPlayerToSpace(space);
+                event.consume();
+            }
+        }
+    }
+
+    private void scroll(ScrollEvent event) {
+        if (event.getDeltaY() != 0) {
+            double factor = event.getDeltaY() > 0 ? ZOOM_FACTOR : 1 / ZOOM_FACTOR;
+            setScale(scale * factor, event.getX(), event.getY());
+            event.consume();
+        }
+    }
+
+    private void repaintAll() {
+        repaintAll = true;
+        schedulePaint();
+    }
+
+    /**
+     * Makes sure that the canvas is painted once, after all changes which
+     * are currently done are done.
+     */
+    private void schedulePaint() {
+        if (!paintScheduled) {
+            paintScheduled = true;
+            Platform.runLater(this::paint);
+        }
+    }
+
+    private void paint() {
+        paintScheduled = false;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double size = tileSize();
+
+        int firstColumn = Math.max(0, (int) Math.floor(offsetX / size));
+        int firstRow = Math.max(0, (int) Math.floor(offsetY / size));
+        int lastColumn = Math.min(board.width - 1, (int) Math.floor((offsetX + canvas.getWidth()) / size));
+        int lastRow = Math.min(board.height - 1, (int) Math.floor((offsetY + canvas.getHeight()) / size));
+
+        if (repaintAll) {
+            repaintAll = false;
+            dirty.clear();
+            gc.setFill(Color.GRAY);
+            gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
+            for (int y = firstRow; y <= lastRow; y++) {
+                for (int x = firstColumn; x <= lastColumn; x++) {
+                    paintSpace(gc, board.getSpace(x, y), size);
+                }
+            }
+        } else {
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                int x = i % board.width;
+                int y = i / board.width;
+                if (x >= firstColumn && x <= lastColumn && y >= firstRow && y <= lastRow) {
+                    paintSpace(gc, board.getSpace(x, y), size);
+                }
+            }
+            dirty.clear();
+        }
+    }
+
+    private void paintSpace(GraphicsContext gc, Space space, double size) {
+        double left = space.x * size - offsetX;
+        double top = space.y * size - offsetY;
+
+        gc.setFill((space.x + space.y) % 2 == 0 ? Color.WHITE : Color.BLACK);
+        gc.fillRect(left, top, size, size);
+
+        Image icon = ImageAtlas.getIcon(space.getAction());
+        if (icon != null) {
+            gc.drawImage(icon, left, top, size, size);
+        }
+
+        int walls = space.getWallMask();
+        if (walls != 0) {
+            double width = size / 7;
+            gc.setFill(Color.DARKGOLDENROD);
+            for (Heading heading : HEADINGS) {
+                if ((walls & heading.mask()) != 0) {
+                    switch (heading) {
+                        case NORTH:
+                            gc.fillRect(left, top, size, width);
+                            break;
+                        case SOUTH:
+                            gc.fillRect(left, top + size - width, size, width);
+                            break;
+                        case EAST:
+                            gc.fillRect(left + size - width, top, width, size);
+                            break;
+                        case WEST:
+                            gc.fillRect(left, top, width, size);
+                            break;
+                    }
+                }
+            }
+        }
+
+        Player player = space.getPlayer();
+        if (player != null) {
+            paintPlayer(gc, player, left + size / 2, top + size / 2, size);
+        }
+    }
+
+    private void paintPlayer(GraphicsContext gc, Player player, double centerX, double centerY, double size) {
+        // the same arrow as in the SpaceView: 20x20, pointing south for heading SOUTH
+        double half = size / 6;
+        double[] xs = {-half, 0, half};
+        double[] ys = {-half, half, -half};
+        // headings are ordered clockwise, starting with SOUTH
+        double angle = Math.toRadians(90 * player.getHeading().ordinal());
+        double cos = Math.cos(angle);
+        double sin = Math.sin(angle);
+        for (int i = 0; i < 3; i++) {
+            double x = xs[i] * cos - ys[i] * sin;
+            double y = xs[i] * sin + ys[i] * cos;
+            xs[i] = centerX + x;
+            ys[i] = centerY + y;
+        }
+        gc.setFill(ImageAtlas.getColor(player.getColor()));
+        gc.fillPolygon(xs, ys, 3);
+    }
+
+}
@@ -28,10 +28,14 @@ import dk.dtu.compute.se.pisd.roborally.model.Phase;
 import dk.dtu.compute.se.pisd.roborally.model.Player;
 import dk.dtu.compute.se.pisd.roborally.model.Space;
 import javafx.event.EventHandler;
+import javafx.geometry.Pos;
 import javafx.scene.control.Label;
+import javafx.scene.control.ToggleButton;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.StackPane;
 import javafx.scene.layout.VBox;
 import org.jetbrains.annotations.NotNull;
 
@@ -46,6 +50,18 @@ import java.util.List;
  */
 public class BoardView extends VBox implements ViewObserver {
 
+    /**
+     * Boards with more spaces than this are shown by a {@link BoardCanvasView}
+     * instead of a grid of {@link SpaceView}s.
+     */
+    final public static int CANVAS_THRESHOLD = 400;
+
+    /**
+     * The maximum number of spaces in each direction, which the
+     * {@link BoardCanvasView} shows initially.
+     */
+    final public static int CANVAS_VIEWPORT_SPACES = 12;
+
     private Board board;
     private Phase phase;
     private int step;
@@ -53,6 +69,7 @@ public class BoardView extends VBox implements ViewObserver {
 
 
     private GridPane mainBoardPane;
+    private BoardCanvasView boardCanvasView;
     private SpaceView[][] spaces;
     private SpaceView deadSpace;
     private PlayersView playersView;
@@ -67,35 +84,59 @@ public class BoardView extends VBox implements ViewObserver {
 
     private SpaceEventHandler spaceEventHandler;
 
+    private StackPane boardLayer;
+    private PerformanceHud performanceHud;
+    private ToggleButton performanceButton;
+
     public BoardView(@NotNull GameController gameController) {
         board = gameController.board;
 
-        mainBoardPane = new GridPane();
         playersView = new PlayersView(gameController);
 
-        this.getChildren().add(mainBoardPane);
-        this.getChildren().add(playersView);
-
-
-        spaces = new SpaceView[board.width][board.height];
-
-        spaceEventHandler = new SpaceEventHandler(gameController);
-
-        for (int x = 0; x < board.width; x++) {
-            for (int y = 0; y < board.height; y++) {
-                Space space = board.getSpace(x, y);
-                SpaceView spaceView = new SpaceView(space);
-                spaces[x][y] = spaceView;
-                mainBoardPane.add(spaceView, x, y);
-                spaceView.setOnMouseClicked(spaceEventHandler);
+        boardLayer = new StackPane();
+        performanceHud = new PerformanceHud(gameController);
+        StackPane.setAlignment(performanceHud, Pos.TOP_LEFT);
+
+        if (board.width * board.height > CANVAS_THRESHOLD) {
+            boardCanvasView = new BoardCanvasView(gameController);
+            boardCanvasView.setPrefSize(
+                    Math.min(board.width, CANVAS_VIEWPORT_SPACES) * SpaceView.SPACE_WIDTH,
+                    Math.min(board.height, CANVAS_VIEWPORT_SPACES) * SpaceView.SPACE_HEIGHT);
+            VBox.setVgrow(boardLayer, Priority.ALWAYS);
+            boardLayer.getChildren().add(boardCanvasView);
+        } else {
+            mainBoardPane = new GridPane();
+            StackPane.setAlignment(mainBoardPane, Pos.TOP_LEFT);
+            boardLayer.getChildren().add(mainBoardPane);
+
+            spaces = new SpaceView[board.width][board.height];
+
+            spaceEventHandler = new SpaceEventHandler(gameController);
+
+            for (int x = 0; x < board.width; x++) {
+                for (int y = 0; y < board.height; y++) {
+                    Space space = board.getSpace(x, y);
+                    SpaceView spaceView = new SpaceView(space);
+                    spaces[x][y] = spaceView;
+                    mainBoardPane.add(spaceView, x, y);
+                    spaceView.setOnMouseClicked(spaceEventHandler);
+                }
             }
         }
+        boardLayer.getChildren().add(performanceHud);
+        this.getChildren().add(boardLayer);
+        this.getChildren().add(playersView);
 
         statusBox = new VBox();
         checkPointBox = new HBox();
         rebootingBox = new HBox();
         createStatusBox();
 
+        // added after the labels of the status, which are replaced by their index
+        performanceButton = new ToggleButton("Performance");
+        performanceButton.setOnAction(e -> performanceHud.setShown(performanceButton.isSelected()));
+        statusBox.getChildren().add(performanceButton);
+
         this.getChildren().add(statusBox);
 
         deadSpace = new SpaceView(board.getDeadSpace());
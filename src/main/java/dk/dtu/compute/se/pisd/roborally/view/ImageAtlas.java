@@ -0,0 +1,114 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The images and colours, which are shared by all views of the board. The
+ * images of the <code>assets/</code> folder are loaded only once, when the
+ * atlas is used for the first time, and the colours of the players are
+ * parsed only once for each name of a colour.
+ *
+ */
+final class ImageAtlas {
+
+    private static final String ASSETS = "assets/";
+
+    private static final int PRELOADED_CHECKPOINTS = 4;
+
+    private static final Map<String, Optional<Image>> IMAGES = new ConcurrentHashMap<>();
+
+    private static final Map<String, Color> COLORS = new ConcurrentHashMap<>();
+
+    private static final Color DEFAULT_COLOR = Color.MEDIUMPURPLE;
+
+    static {
+        for (Heading heading : Heading.values()) {
+            getImage("conveyor" + heading + ".png");
+        }
+        for (int i = 1; i <= PRELOADED_CHECKPOINTS; i++) {
+            getImage("checkpoint" + i + ".png");
+        }
+        getImage("gear.png");
+    }
+
+    private ImageAtlas() {
+    }
+
+    /**
+     * Returns the image of the given name in the assets folder.
+     *
+     * @param name the name of the image file
+     * @return the image, or null if there is no such image
+     */
+    static Image getImage(String name) {
+        return IMAGES.computeIfAbsent(name, key -> {
+            URL url = ImageAtlas.class.getClassLoader().getResource(ASSETS + key);
+            return url == null ? Optional.empty() : Optional.of(new Image(url.toString()));
+        }).orElse(null);
+    }
+
+    /**
+     * Returns the icon, which shows the given field action.
+     *
+     * @param action the field action
+     * @return the icon of the action, or null if there is no icon for it
+     */
+    static Image getIcon(FieldAction action) {
+        if (action instanceof ConveyorBelt) {
+            return getImage("conveyor" + ((ConveyorBelt) action).getHeading() + ".png");
+        } else if (action instanceof Checkpoint) {
+            return getImage("checkpoint" + ((Checkpoint) action).getNumber() + ".png");
+        } else if (action instanceof Gear) {
+            return getImage("gear.png");
+        }
+        return null;
+    }
+
+    /**
+     * Returns the colour with the given name (see {@link Color#valueOf(String)}).
+     *
+     * @param name the name of the colour
+     * @return the colour, or a default colour if the name is not a valid colour
+     */
+    static Color getColor(String name) {
+        if (name == null) {
+            return DEFAULT_COLOR;
+        }
+        return COLORS.computeIfAbsent(name, key -> {
+            try {
+                return Color.valueOf(key);
+            } catch (Exception e) {
+                return DEFAULT_COLOR;
+            }
+        });
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.controller.StepLatencies;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * An overlay, which shows how the game performs while it runs: the time of
+ * the frames of JavaFX, the number of notifications of the model per second,
+ * the number of updates and commands waiting for execution, the latencies of
+ * the register steps, and the used heap. The values are read from counters in
+ * the model and in the game controller, which are maintained anyway, and the
+ * overlay is refreshed a few times per second only, while it is shown.
+ *
+ */
+public class PerformanceHud extends VBox {
+
+    final private static long REFRESH_INTERVAL = 500_000_000L; // nanoseconds
+
+    final private static double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final GameController gameController;
+
+    private final Label frameInfo = new Label();
+    private final Label notificationInfo = new Label();
+    private final Label queueInfo = new Label();
+    private final Label stepInfo = new Label();
+    private final Label heapInfo = new Label();
+
+    private final AnimationTimer timer;
+
+    private long lastFrame;
+    private long maxFrame;
+    private long frames;
+    private long frameTime;
+
+    private long lastRefresh;
+    private long lastNotifications;
+
+    public PerformanceHud(@NotNull GameController gameController) {
+        this.gameController = gameController;
+
+        this.setStyle("-fx-background-color: rgba(0, 0, 0, 0.7);");
+        this.setPadding(new Insets(4.0));
+        this.setSpacing(2.0);
+        this.setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+        // the overlay does not take the mouse events of the board below
+        this.setMouseTransparent(true);
+        for (Label label : new Label[]{frameInfo, notificationInfo, queueInfo, stepInfo, heapInfo}) {
+            label.setStyle("-fx-text-fill: lightgreen; -fx-font-family: monospace;");
+            this.getChildren().add(label);
+        }
+
+        timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                frame(now);
+            }
+        };
+        this.setVisible(false);
+    }
+
+    /**
+     * Shows or hides the overlay; the counters are read only while the
+     * overlay is shown.
+     *
+     * @param shown true if the overlay should be shown
+     */
+    public void setShown(boolean shown) {
+        this.setVisible(shown);
+        if (shown) {
+            lastFrame = 0;
+            lastRefresh = 0;
+            timer.start();
+        } else {
+            timer.stop();
+        }
+    }
+
+    private void frame(long now) {
+        if (lastFrame != 0) {
+            long time = now - lastFrame;
+            frameTime += time;
+            maxFrame = Math.max(maxFrame, time);
+            frames++;
+        }
+        lastFrame = now;
+
+        if (lastRefresh == 0) {
+            lastRefresh = now;
+            lastNotifications = Subject.getNotificationCount();
+        } else if (now - lastRefresh >= REFRESH_INTERVAL) {
+            refresh(now);
+        }
+    }
+
+    private void refresh(long now) {
+        double seconds = (now - lastRefresh) / 1e9;
+        long notifications = Subject.getNotificationCount();
+
+        frameInfo.setText(String.format("Frame:         %6.1f ms avg %6.1f ms max",
+                frames == 0 ? 0.0 : frameTime / (frames * NANOS_PER_MILLI), maxFrame / NANOS_PER_MILLI));
+        notificationInfo.setText(String.format("Notifications: %8.0f /s",
+                (notifications - lastNotifications) / seconds));
+        queueInfo.setText(String.format("Pending:       %6d views %6d commands",
+                ViewUpdateScheduler.getInstance().getPendingCount(), gameController.getQueuedCommands()));
+
+        StepLatencies latencies = gameController.getStepLatencies();
+        stepInfo.setText(String.format("Step:          %6.2f ms p50 %6.2f ms p99",
+                latencies.getPercentile(50) / NANOS_PER_MILLI, latencies.getPercentile(99) / NANOS_PER_MILLI));
+
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        heapInfo.setText(String.format("Heap:          %6d MB of %d MB",
+                used >> 20, runtime.maxMemory() >> 20));
+
+        lastRefresh = now;
+        lastNotifications = notifications;
+        frames = 0;
+        frameTime = 0;
+        maxFrame = 0;
+    }
+
+}
@@ -0,0 +1,132 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import javafx.geometry.Insets;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A view for replaying a recorded game: a {@link BoardView} of a copy of the
+ * board of the game, and a slider, with which the user can jump to any step
+ * of any round of the recording. Moving the slider restores the recorded
+ * state of that step to the board (see {@link GameRecording#seek(int, Board)});
+ * the game is not executed again.
+ *
+ */
+public class ReplayView extends VBox {
+
+    private final GameRecording recording;
+
+    private final Board board;
+
+    private final Slider slider;
+
+    private final Label frameInfo;
+
+    private int frame = -1;
+
+    /**
+     * Creates a replay view for a recording of the game on the given board.
+     *
+     * @param gameBoard the board of the recorded game, which is not changed
+     * @param recording the recording of the game
+     */
+    public ReplayView(@NotNull Board gameBoard, @NotNull GameRecording recording) {
+        this.recording = recording;
+        this.board = gameBoard.copy();
+
+        int last = recording.size() - 1;
+        slider = new Slider(0, Math.max(0, last), Math.max(0, last));
+        slider.setMajorTickUnit(Player.NO_REGISTERS);
+        slider.setMinorTickCount(0);
+        slider.setBlockIncrement(1);
+        slider.setSnapToTicks(false);
+        HBox.setHgrow(slider, Priority.ALWAYS);
+        // the recording grows while the game is played
+        slider.setOnMousePressed(e -> slider.setMax(Math.max(0, recording.size() - 1)));
+        slider.valueProperty().addListener((observable, oldValue, newValue) -> seek(newValue.intValue()));
+
+        frameInfo = new Label();
+        HBox controls = new HBox(frameInfo, slider);
+        controls.setSpacing(10.0);
+        controls.setPadding(new Insets(5.0));
+
+        this.getChildren().add(new BoardView(new ReplayController(board)));
+        this.getChildren().add(controls);
+
+        seek(Math.max(0, last));
+    }
+
+    private void seek(int newFrame) {
+        if (newFrame != frame && newFrame >= 0 && newFrame < recording.size()) {
+            frame = newFrame;
+            recording.seek(frame, board);
+            frameInfo.setText("Round " + recording.getRound(frame) + ", register " + (board.getStep() + 1)
+                    + " (" + (frame + 1) + "/" + recording.size() + ")");
+        }
+    }
+
+    /**
+     * The controller of the replayed board, which ignores all commands of the
+     * players, since the replayed game is not played.
+     */
+    private static class ReplayController extends GameController {
+
+        private ReplayController(@NotNull Board board) {
+            super(board);
+        }
+
+        @Override
+        public void moveCurrentPlayerToSpace(@NotNull Space space) {
+        }
+
+        @Override
+        public void finishProgrammingPhase() {
+        }
+
+        @Override
+        public void executePrograms() {
+        }
+
+        @Override
+        public void executeStep() {
+        }
+
+        @Override
+        public void executeCommandOptionAndContinue(@NotNull Player player, Command option) {
+        }
+
+        @Override
+        public boolean moveCards(@NotNull CommandCardField source, @NotNull CommandCardField target) {
+            return false;
+        }
+
+    }
+
+}
@@ -44,6 +44,10 @@ public class RoboRallyMenuBar extends MenuBar {
 
     private MenuItem loadGame;
 
+    private MenuItem recoverGame;
+
+    private MenuItem replayGame;
+
     private MenuItem stopGame;
 
     private MenuItem exitApp;
@@ -70,6 +74,14 @@ public class RoboRallyMenuBar extends MenuBar {
         loadGame.setOnAction( e -> this.appController.loadGame());
         controlMenu.getItems().add(loadGame);
 
+        recoverGame = new MenuItem("Recover Game");
+        recoverGame.setOnAction( e -> this.appController.recoverGame());
+        controlMenu.getItems().add(recoverGame);
+
+        replayGame = new MenuItem("Replay Game");
+        replayGame.setOnAction( e -> this.appController.replayGame());
+        controlMenu.getItems().add(replayGame);
+
         exitApp = new MenuItem("Exit");
         exitApp.setOnAction( e -> this.appController.exit());
         controlMenu.getItems().add(exitApp);
@@ -85,11 +97,15 @@ public class RoboRallyMenuBar extends MenuBar {
             stopGame.setVisible(true);
             saveGame.setVisible(true);
             loadGame.setVisible(false);
+            recoverGame.setVisible(false);
+            replayGame.setVisible(true);
         } else {
             newGame.setVisible(true);
             stopGame.setVisible(false);
             saveGame.setVisible(false);
             loadGame.setVisible(true);
+            recoverGame.setVisible(true);
+            replayGame.setVisible(true);
         }
     }
 }
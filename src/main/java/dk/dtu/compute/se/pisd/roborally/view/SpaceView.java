@@ -23,8 +23,7 @@ package dk.dtu.compute.se.pisd.roborally.view;
 
 import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
 import dk.dtu.compute.se.pisd.roborally.model.*;
-import javafx.scene.canvas.Canvas;
-import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.Node;
 import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.StackPane;
@@ -33,8 +32,6 @@ import javafx.scene.shape.Polygon;
 import javafx.scene.shape.StrokeLineCap;
 import org.jetbrains.annotations.NotNull;
 
-import java.lang.reflect.Field;
-import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +58,12 @@ public class SpaceView extends StackPane implements ViewObserver {
             10.0, 20.0,
             20.0, 0.0);
 
+    private String playerColor;
+
+    private ImageView icon;
+
+    private FieldAction iconAction;
+
     public SpaceView(@NotNull Space space) {
         this.space = space;
 
@@ -86,18 +89,24 @@ public class SpaceView extends StackPane implements ViewObserver {
     private void updatePlayer() {
 
         Player player = space.getPlayer();
-        this.getChildren().remove(playerArrow);
         if (player != null) {
 
-            try {
-                playerArrow.setFill(Color.valueOf(player.getColor()));
-            } catch (Exception e) {
-                playerArrow.setFill(Color.MEDIUMPURPLE);
+            String color = player.getColor();
+            if (playerColor == null || !playerColor.equals(color)) {
+                playerArrow.setFill(ImageAtlas.getColor(color));
+                playerColor = color;
             }
 
             playerArrow.setRotate((90 * player.getHeading().ordinal()) % 360);
-            this.getChildren().add(playerArrow);
+            // the arrow is always on top of the other nodes of this space
+            List<Node> children = this.getChildren();
+            if (children.isEmpty() || children.get(children.size() - 1) != playerArrow) {
+                children.remove(playerArrow);
+                children.add(playerArrow);
+            }
 
+        } else {
+            this.getChildren().remove(playerArrow);
         }
     }
 
@@ -110,7 +119,7 @@ public class SpaceView extends StackPane implements ViewObserver {
         for (Heading wallDirection : walls) {
 
             //To prevent unnecessary re-rendering of walls
-            if (wallViews.containsKey(wallDirection)) return;
+            if (wallViews.containsKey(wallDirection)) continue;
 
 
             Polygon line = new Polygon(0.0, 0.0,
@@ -145,36 +154,31 @@ public class SpaceView extends StackPane implements ViewObserver {
 
             FieldAction action = space.getAction();
 
-            if (action != null) {
-                if (action instanceof ConveyorBelt) {
-                    String heading = ((ConveyorBelt) action).getHeading().toString();
-                    putIcon("conveyor" + heading + ".png");
-                }
-
-                if (action instanceof Checkpoint) {
-                    int number = ((Checkpoint) action).getNumber();
-                    putIcon("checkpoint" + number + ".png");
-                }
-
-                if (action instanceof Gear) {
-                    putIcon("gear.png");
+            //The icon is added only once, and replaced only if the action of the space changes
+            if (action != iconAction) {
+                Image image = ImageAtlas.getIcon(action);
+                if (image == null) {
+                    if (icon != null) {
+                        this.getChildren().remove(icon);
+                        icon = null;
+                    }
+                } else if (icon == null) {
+                    icon = putIcon(image);
+                } else {
+                    icon.setImage(image);
                 }
-                //Continue like this
-
+                iconAction = action;
             }
         }
     }
 
-
-
-    private ImageView putIcon(String name) {
-        Image icon = new Image(SpaceView.class.getClassLoader().getResource("assets/" + name).toString());
-        ImageView imgView = new ImageView(icon);
-        imgView.setImage(icon);
+    private ImageView putIcon(Image image) {
+        ImageView imgView = new ImageView(image);
         imgView.setFitHeight(SPACE_HEIGHT);
         imgView.setFitWidth(SPACE_WIDTH);
         imgView.setVisible(true);
-        this.getChildren().add(imgView);
+        // icons are below the walls and the player
+        this.getChildren().add(0, imgView);
         return imgView;
     }
 
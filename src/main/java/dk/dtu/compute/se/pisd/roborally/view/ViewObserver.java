@@ -39,11 +39,12 @@ public interface ViewObserver extends Observer {
     default void update(Subject subject) {
         // This default implementation of the update method makes sure that ViewObserver implementations
         // are doing the update only in the FX application thread. The update of the view is instead
-        // done in the updateView() method;
+        // done in the updateView() method; updates for changes in other threads are coalesced and
+        // done once per frame by the ViewUpdateScheduler.
         if (Platform.isFxApplicationThread()) {
             updateView(subject);
         } else {
-            Platform.runLater(() -> updateView(subject));
+            ViewUpdateScheduler.getInstance().schedule(this, subject);
         }
     }
 
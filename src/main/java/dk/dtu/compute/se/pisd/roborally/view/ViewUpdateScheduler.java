@@ -0,0 +1,139 @@
+/*
+ *  This file is part of the initial project provided for the
+ *  course "Project in Software Development (02362)" held at
+ *  DTU Compute at the Technical University of Denmark.
+ *
+ *  Copyright (C) 2019, 2020: Ekkart Kindler, ekki@dtu.dk
+ *
+ *  This software is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation; version 2 of the License.
+ *
+ *  This project is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this project; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ */
+package dk.dtu.compute.se.pisd.roborally.view;
+
+import dk.dtu.compute.se.pisd.designpatterns.observer.Subject;
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Coalesces the updates of views for changes of the model which happen
+ * outside the JavaFX application thread. Instead of posting a runnable for
+ * every single change, the views which need an update are recorded together
+ * with the changed subjects; once per frame (pulse) of JavaFX, the recorded
+ * updates are drained and every view is updated once for each subject that
+ * changed, however often that subject changed during the frame.
+ * <p>
+ * The timer, which drains the updates, runs only while there are updates
+ * to be done.
+ *
+ */
+final class ViewUpdateScheduler {
+
+    private static final ViewUpdateScheduler INSTANCE = new ViewUpdateScheduler();
+
+    private final Map<ViewObserver, Set<Subject>> pending = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private AnimationTimer timer;
+
+    private ViewUpdateScheduler() {
+    }
+
+    /**
+     * Returns the scheduler of the application.
+     *
+     * @return the scheduler
+     */
+    static ViewUpdateScheduler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records that the given view needs to be updated for a change of the
+     * given subject. This method may be called from any thread.
+     *
+     * @param view the view to be updated
+     * @param subject the subject which has changed
+     */
+    void schedule(@NotNull ViewObserver view, @NotNull Subject subject) {
+        pending.compute(view, (key, subjects) -> {
+            if (subjects == null) {
+                subjects = new LinkedHashSet<>();
+            }
+            subjects.add(subject);
+            return subjects;
+        });
+        if (running.compareAndSet(false, true)) {
+            Platform.runLater(this::start);
+        }
+    }
+
+    /**
+     * Returns the number of views which are waiting for an update.
+     *
+     * @return the number of views with pending updates
+     */
+    int getPendingCount() {
+        return pending.size();
+    }
+
+    private void start() {
+        if (timer == null) {
+            timer = new AnimationTimer() {
+                @Override
+                public void handle(long now) {
+                    drain();
+                }
+            };
+        }
+        timer.start();
+    }
+
+    /**
+     * Updates all views with pending updates; runs on the JavaFX application thread.
+     */
+    private void drain() {
+        Iterator<ViewObserver> views = pending.keySet().iterator();
+        while (views.hasNext()) {
+            ViewObserver view = views.next();
+            // removing the entry atomically hands the set over to this thread;
+            // later changes create a new entry for the next frame
+            Set<Subject> subjects = pending.remove(view);
+            if (subjects != null) {
+                for (Subject subject : subjects) {
+                    view.updateView(subject);
+                }
+            }
+        }
+
+        if (pending.isEmpty()) {
+            running.set(false);
+            timer.stop();
+            // an update might have been scheduled after the check above,
+            // without restarting the timer, since it was still running
+            if (!pending.isEmpty() && running.compareAndSet(false, true)) {
+                timer.start();
+            }
+        }
+    }
+
+}
@@ -1,17 +1,22 @@
-/* Need to switch of FK check for MySQL since there are crosswise FK references */
-SET FOREIGN_KEY_CHECKS = 0;;
+/* The current player of a game refers to a player of that game. It is not
+   declared as a foreign key, since then the tables Game and Player would
+   refer to each other, which requires switching off the foreign key checks
+   (MySQL) or cannot be created at all (other databases). */
 
 CREATE TABLE IF NOT EXISTS Game (
   gameID int NOT NULL UNIQUE AUTO_INCREMENT,
   
   name varchar(255),
+  map varchar(255),
+  seed bigint,
+  cardsDealt bigint,
 
   phase tinyint,
   step tinyint,
+  stepMode tinyint,
   currentPlayer tinyint NULL,
   
-  PRIMARY KEY (gameID),
-  FOREIGN KEY (gameID, currentPlayer) REFERENCES Player(gameID, playerID)
+  PRIMARY KEY (gameID)
 );;
   
 CREATE TABLE IF NOT EXISTS Player (
@@ -21,14 +26,30 @@ CREATE TABLE IF NOT EXISTS Player (
   name varchar(255),
   colour varchar(31),
   
-  positionX int,
-  positionY int,
+  positionX int NULL,
+  positionY int NULL,
   heading tinyint,
+
+  spawnX int NULL,
+  spawnY int NULL,
+  checkpoint int,
+  rebooting tinyint,
   
   PRIMARY KEY (gameID, playerID),
   FOREIGN KEY (gameID) REFERENCES Game(gameID)
 );;
 
-SET FOREIGN_KEY_CHECKS = 1;;
+/* The program registers (type 0) and the hand cards (type 1) of a player;
+   command is the ordinal of the command of the card, NULL if the field is empty. */
+CREATE TABLE IF NOT EXISTS CardField (
+  gameID int NOT NULL,
+  playerID tinyint NOT NULL,
+  type tinyint NOT NULL,
+  position tinyint NOT NULL,
 
-// TODO still some stuff missing here
\ No newline at end of file
+  command tinyint NULL,
+  visible tinyint,
+
+  PRIMARY KEY (gameID, playerID, type, position),
+  FOREIGN KEY (gameID, playerID) REFERENCES Player(gameID, playerID)
+);;
@@ -0,0 +1,143 @@
+package dk.dtu.compute.se.pisd.designpatterns.observer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+class SubjectTest {
+
+    private TestSubject first;
+    private TestSubject second;
+
+    private final List<Subject> updates = new ArrayList<>();
+
+    private final Observer observer = updates::add;
+
+    private static class TestSubject extends Subject {
+
+        void change() {
+            notifyChange();
+        }
+
+    }
+
+    @BeforeEach
+    void setUp() {
+        first = new TestSubject();
+        second = new TestSubject();
+        first.attach(observer);
+        second.attach(observer);
+        updates.clear();
+    }
+
+    @Test
+    void notifiesImmediatelyWithoutBatch() {
+        first.change();
+        first.change();
+
+        Assertions.assertEquals(List.of(first, first), updates);
+    }
+
+    @Test
+    void batchNotifiesOncePerChangedSubject() {
+        Subject.beginBatch();
+        first.change();
+        second.change();
+        first.change();
+        Assertions.assertTrue(updates.isEmpty());
+        Subject.commitBatch();
+
+        Assertions.assertEquals(List.of(first, second), updates);
+    }
+
+    @Test
+    void nestedBatchNotifiesOnOutermostCommit() {
+        Subject.beginBatch();
+        Subject.beginBatch();
+        first.change();
+        Subject.commitBatch();
+        Assertions.assertTrue(updates.isEmpty());
+        Subject.commitBatch();
+
+        Assertions.assertEquals(List.of(first), updates);
+
+        first.change();
+        Assertions.assertEquals(List.of(first, first), updates);
+    }
+
+    @Test
+    void batchesOnDifferentThreadsNotifyIndependently() throws InterruptedException {
+        Subject.beginBatch();
+        first.change();
+
+        Thread other = new Thread(() -> {
+            Subject.beginBatch();
+            first.change();
+            Subject.commitBatch();
+        });
+        other.start();
+        other.join();
+        Assertions.assertEquals(List.of(first), updates);
+
+        Subject.commitBatch();
+        Assertions.assertEquals(List.of(first, first), updates);
+    }
+
+    @Test
+    void commitWithoutBatchFails() {
+        Assertions.assertThrows(IllegalStateException.class, Subject::commitBatch);
+    }
+
+    @Test
+    void attachDuringNotification() {
+        List<Subject> lateUpdates = new ArrayList<>();
+        Observer late = lateUpdates::add;
+        first.attach(subject -> first.attach(late));
+
+        first.change();
+        Assertions.assertTrue(lateUpdates.isEmpty());
+
+        first.change();
+        Assertions.assertEquals(List.of(first), lateUpdates);
+    }
+
+    @Test
+    void attachTwiceAndDetach() {
+        first.attach(observer);
+        first.change();
+        Assertions.assertEquals(List.of(first), updates);
+
+        first.detach(observer);
+        first.change();
+        Assertions.assertEquals(List.of(first), updates);
+    }
+
+    @Test
+    void observersAreReferencedWeakly() throws InterruptedException {
+        WeakReference<Observer> reference = attachTemporaryObserver();
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assertions.assertNull(reference.get());
+
+        first.change();
+        Assertions.assertEquals(List.of(first), updates);
+    }
+
+    private WeakReference<Observer> attachTemporaryObserver() {
+        // a non-capturing lambda would be a constant, which is never garbage
+        Observer temporary = new Observer() {
+            @Override
+            public void update(Subject subject) {
+            }
+        };
+        first.attach(temporary);
+        return new WeakReference<>(temporary);
+    }
+
+}
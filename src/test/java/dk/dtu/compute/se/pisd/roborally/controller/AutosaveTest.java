@@ -0,0 +1,62 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.GameSaver;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class AutosaveTest {
+
+    private final int TEST_WIDTH = 8;
+    private final int TEST_HEIGHT = 8;
+
+    private final int NUMBER_OF_PLAYERS = 2;
+
+    private Path folder;
+    private Board board;
+    private GameController gameController;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("roborally-saves");
+        board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        gameController = new GameController(board);
+        gameController.initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(folder.resolve("autosave.json"));
+        Files.deleteIfExists(folder.resolve("autosave.json.delta"));
+        Files.deleteIfExists(folder);
+    }
+
+    @Test
+    void savedAfterInterval() {
+        GameSaver saver = new GameSaver(folder);
+        Autosave autosave = new Autosave(board, saver, "autosave", NUMBER_OF_PLAYERS);
+        Player player = board.getPlayer(0);
+
+        autosave.stepExecuted(player, 0);
+        Assertions.assertFalse(Files.exists(folder.resolve("autosave.json")));
+
+        autosave.stepExecuted(board.getPlayer(1), 0);
+        saver.shutdown(5000);
+        Assertions.assertTrue(Files.exists(folder.resolve("autosave.json")));
+    }
+
+    @Test
+    void intervalMustBePositive() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new Autosave(board, new GameSaver(folder), "autosave", 0));
+    }
+
+}
@@ -121,5 +121,122 @@ class FieldActionTest {
         System.out.println(player1.getHeading());
         Assertions.assertEquals(player1.getHeading(), expectedHeading);
     }
-}
 
+    @Test
+    void ConveyorMergeConflict(){
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        Player player2 = board.getPlayer(1);
+        player1.setSpace(board.getSpace(3,4));
+        player2.setSpace(board.getSpace(5,4));
+
+        board.getSpace(3,4).setAction(new ConveyorBelt(Heading.EAST));
+        board.getSpace(5,4).setAction(new ConveyorBelt(Heading.WEST));
+        gameController.executeFieldActions();
+
+        Assertions.assertEquals(player1.getSpace(), board.getSpace(3,4));
+        Assertions.assertEquals(player2.getSpace(), board.getSpace(5,4));
+    }
+
+    @Test
+    void ConveyorGraphChain(){
+        Board board = gameController.board;
+        board.getSpace(4,1).setAction(new ConveyorBelt(Heading.SOUTH));
+        board.getSpace(4,2).setAction(new ConveyorBelt(Heading.SOUTH));
+        board.getSpace(4,3).addWall(Heading.NORTH);
+
+        ConveyorGraph graph = board.getConveyorGraph();
+        int first = graph.beltAt(board.getSpace(4,1));
+        int second = graph.beltAt(board.getSpace(4,2));
+
+        Assertions.assertEquals(2, graph.size());
+        Assertions.assertEquals(graph.getSpace(second), graph.getSuccessor(first));
+        Assertions.assertFalse(graph.isBlocked(first));
+        Assertions.assertTrue(graph.isBlocked(second));
+    }
+
+    @Test
+    void ConveyorOffBoard(){
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        player1.setSpace(board.getSpace(7,4));
+        board.getSpace(7,4).setAction(new ConveyorBelt(Heading.EAST));
+
+        gameController.executeFieldActions();
+
+        Assertions.assertTrue(player1.isRebooting());
+        Assertions.assertEquals(player1.getSpace(), board.getDeadSpace());
+    }
+
+    @Test
+    void BeltsBeforeGears(){
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        player1.setSpace(board.getSpace(2,2));
+        player1.setHeading(Heading.SOUTH);
+        board.getSpace(2,2).setAction(new Gear(true));
+        board.getSpace(2,1).setAction(new ConveyorBelt(Heading.SOUTH));
+
+        FieldActionIndex index = board.getFieldActionIndex();
+        Assertions.assertEquals(1, index.count(ActivationOrder.CONVEYOR_BELTS));
+        Assertions.assertEquals(1, index.count(ActivationOrder.GEARS));
+
+        Player player2 = board.getPlayer(1);
+        player2.setSpace(board.getSpace(2,1));
+        player2.setHeading(Heading.SOUTH);
+        player1.setSpace(board.getSpace(6,6));
+
+        gameController.executeFieldActions();
+
+        Assertions.assertEquals(player2.getSpace(), board.getSpace(2,2));
+        Assertions.assertEquals(Heading.WEST, player2.getHeading());
+    }
+
+    @Test
+    void ActionOnEmptySpaceIsActivated(){
+        Board board = gameController.board;
+        int[] activations = new int[1];
+        board.getSpace(7,7).setAction(new FieldAction() {
+            @Override
+            public boolean doAction(GameController gameController, Space space) {
+                activations[0]++;
+                return true;
+            }
+
+            @Override
+            public ActivationOrder getActivationOrder() {
+                return ActivationOrder.GEARS;
+            }
+        });
+
+        gameController.executeFieldActions();
+
+        Assertions.assertNull(board.getSpace(7,7).getPlayer());
+        Assertions.assertEquals(1, activations[0]);
+    }
+
+    @Test
+    void CopyActivatesItsOwnActions(){
+        Board board = gameController.board;
+        board.setNumberOfCheckpoints(2);
+        board.getSpace(2,2).setAction(new Gear(true));
+        board.getSpace(5,5).setAction(new Checkpoint(1));
+        board.getFieldActionIndex();
+
+        Board copy = board.copy();
+        GameController copyController = new GameController(copy);
+        Player copy1 = copy.getPlayer(0);
+        Player copy2 = copy.getPlayer(1);
+        copy1.setSpace(copy.getSpace(5,5));
+        copy2.setSpace(copy.getSpace(2,2));
+        copy2.setHeading(Heading.SOUTH);
+
+        copyController.executeFieldActions();
+
+        Assertions.assertEquals(1, copy1.getCurrentCheckpoint());
+        Assertions.assertEquals(Heading.WEST, copy2.getHeading());
+        Assertions.assertEquals(0, board.getPlayer(0).getCurrentCheckpoint());
+        Assertions.assertSame(copy.getSpace(5,5),
+                copy.getFieldActionIndex().getSpaces(ActivationOrder.CHECKPOINTS)[0]);
+    }
+}
@@ -6,6 +6,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
+
 class GameControllerTest {
 
     private final int TEST_WIDTH = 8;
@@ -79,6 +81,42 @@ class GameControllerTest {
         Assertions.assertEquals(player2.getSpace(), board.getSpace(4,2));
     }
 
+    @Test
+    void pushChainBlockedAtEnd(){
+        Board board = gameController.board;
+
+        Player player1 = board.getPlayer(0);
+        Player player2 = board.getPlayer(1);
+        Player player3 = board.getPlayer(2);
+        player1.setSpace(board.getSpace(4,1));
+        player2.setSpace(board.getSpace(4,2));
+        player3.setSpace(board.getSpace(4,3));
+
+        board.getSpace(4,3).addWall(Heading.SOUTH);
+
+        Assertions.assertEquals(MoveResult.BLOCKED, gameController.moveForward(player1,Heading.SOUTH));
+        Assertions.assertEquals(player1.getSpace(), board.getSpace(4,1));
+        Assertions.assertEquals(player2.getSpace(), board.getSpace(4,2));
+        Assertions.assertEquals(player3.getSpace(), board.getSpace(4,3));
+    }
+
+    @Test
+    void pushChainOffBoard(){
+        Board board = gameController.board;
+
+        Player player1 = board.getPlayer(0);
+        Player player2 = board.getPlayer(1);
+        Player player3 = board.getPlayer(2);
+        player1.setSpace(board.getSpace(4,board.height - 3));
+        player2.setSpace(board.getSpace(4,board.height - 2));
+        player3.setSpace(board.getSpace(4,board.height - 1));
+
+        Assertions.assertEquals(MoveResult.MOVED, gameController.moveForward(player1,Heading.SOUTH));
+        Assertions.assertEquals(player1.getSpace(), board.getSpace(4,board.height - 2));
+        Assertions.assertEquals(player2.getSpace(), board.getSpace(4,board.height - 1));
+        Assertions.assertTrue(player3.isRebooting());
+    }
+
     @Test
     void moveToWallSpaceSucces(){
         Board board = gameController.board;
@@ -188,5 +226,125 @@ class GameControllerTest {
 
        Assertions.assertEquals(board.getPlayer(0).getCurrentCheckpoint(), board.getNumberOfCheckpoints());
     }
-}
 
+    @Test
+    void winNotifiesListenersWithoutJavaFX() {
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        Player[] won = new Player[1];
+        gameController.addGameListener(new GameListener() {
+            @Override
+            public void playerWon(Player player) {
+                won[0] = player;
+            }
+        });
+
+        board.getSpace(4,4).setAction(new Checkpoint(1));
+        board.setNumberOfCheckpoints(1);
+        player1.setSpace(board.getSpace(4,3));
+        gameController.moveForward(player1,Heading.SOUTH);
+        gameController.executeFieldActions();
+
+        Assertions.assertEquals(player1, won[0]);
+        Assertions.assertEquals(player1, gameController.getWinner());
+        Assertions.assertEquals(Phase.FINISHED, board.getPhase());
+    }
+
+    @Test
+    void onlyFirstPlayerOnCheckpointWins() {
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        Player player2 = board.getPlayer(1);
+        int[] wins = new int[1];
+        gameController.addGameListener(new GameListener() {
+            @Override
+            public void playerWon(Player player) {
+                wins[0]++;
+            }
+        });
+
+        board.getSpace(4,4).setAction(new Checkpoint(1));
+        board.getSpace(5,5).setAction(new Checkpoint(1));
+        board.setNumberOfCheckpoints(1);
+        player1.setSpace(board.getSpace(4,4));
+        player2.setSpace(board.getSpace(5,5));
+        gameController.executeFieldActions();
+
+        Assertions.assertEquals(1, wins[0]);
+        Assertions.assertEquals(1, player1.getCurrentCheckpoint() + player2.getCurrentCheckpoint());
+    }
+
+    @Test
+    void noStepsAreExecutedAfterWin() {
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        int[] steps = new int[1];
+        gameController.addGameListener(new GameListener() {
+            @Override
+            public void stepExecuted(Player player, int register) {
+                steps[0]++;
+            }
+        });
+
+        player1.getProgramField(0).setCard(new CommandCard(Command.FORWARD));
+        gameController.finishProgrammingPhase();
+        gameController.handleWin(player1);
+        Space space = player1.getSpace();
+        gameController.executeStep();
+        gameController.executePrograms();
+        gameController.moveForward(player1, Heading.SOUTH);
+
+        Assertions.assertEquals(0, steps[0]);
+        Assertions.assertEquals(space, player1.getSpace());
+        Assertions.assertEquals(Phase.FINISHED, board.getPhase());
+    }
+
+    private GameController createSeededGame(long seed) {
+        Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        board.setSeed(seed);
+        GameController controller = new GameController(board);
+        controller.initialize(2, Arrays.asList("red", "green"));
+        return controller;
+    }
+
+    private String hand(Player player) {
+        StringBuilder hand = new StringBuilder();
+        for (int i = 0; i < Player.NO_CARDS; i++) {
+            hand.append(player.getCardField(i).getCard().command).append(' ');
+        }
+        return hand.toString();
+    }
+
+    private void discardHand(Player player) {
+        for (int i = 0; i < Player.NO_CARDS; i++) {
+            player.getCardField(i).setCard(null);
+        }
+    }
+
+    @Test
+    void sameSeedSameCards() {
+        Board board1 = createSeededGame(4711).board;
+        Board board2 = createSeededGame(4711).board;
+
+        Assertions.assertEquals(hand(board1.getPlayer(0)), hand(board2.getPlayer(0)));
+        Assertions.assertEquals(hand(board1.getPlayer(1)), hand(board2.getPlayer(1)));
+        Assertions.assertEquals(2 * Player.NO_CARDS, board1.getCardsDealt());
+    }
+
+    @Test
+    void newControllerContinuesDealing() {
+        GameController original = createSeededGame(4711);
+        Board board1 = original.board;
+        Board board2 = createSeededGame(4711).board;
+
+        discardHand(board1.getPlayer(0));
+        discardHand(board2.getPlayer(0));
+
+        // as if the game on board2 had been saved and loaded again
+        original.startProgrammingPhase();
+        new GameController(board2).startProgrammingPhase();
+
+        Assertions.assertEquals(hand(board1.getPlayer(0)), hand(board2.getPlayer(0)));
+        Assertions.assertEquals(board1.getCardsDealt(), board2.getCardsDealt());
+    }
+}
@@ -0,0 +1,159 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+class GameLoopTest {
+
+    private final int TEST_WIDTH = 8;
+    private final int TEST_HEIGHT = 8;
+
+    private final int NUMBER_OF_PLAYERS = 3;
+
+    private Board board;
+    private Board reference;
+    private GameController referenceController;
+    private GameLoop gameLoop;
+
+    @BeforeEach
+    void setUp() {
+        board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        board.getSpace(3,3).setAction(new ConveyorBelt(Heading.EAST));
+        board.getSpace(5,5).setAction(new Gear(true));
+        // a fixed seed, so that the cards are the same in every run
+        board.setSeed(42);
+        new GameController(board).initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue"));
+
+        reference = board.copy();
+        referenceController = new GameController(reference);
+        // rendering is done directly on the game loop thread here
+        gameLoop = new GameLoop(board, Runnable::run);
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameLoop.shutdown();
+    }
+
+    private void program(GameController gameController) {
+        Board programmed = gameController.board;
+        for (int i = 0; i < programmed.getPlayersNumber(); i++) {
+            Player player = programmed.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                Assertions.assertTrue(gameController.moveCards(player.getCardField(j), player.getProgramField(j)));
+            }
+        }
+    }
+
+    @Test
+    void displayBoardFollowsEngine() throws Exception {
+        GameController controller = gameLoop.getController();
+        Assertions.assertSame(board, controller.board);
+
+        program(controller);
+        program(referenceController);
+        gameLoop.submit(gameController -> { }).get();
+        Assertions.assertEquals(BoardState.capture(reference), BoardState.capture(board));
+
+        controller.finishProgrammingPhase();
+        controller.executePrograms();
+        referenceController.finishProgrammingPhase();
+        referenceController.executePrograms();
+
+        gameLoop.submit(gameController -> { }).get();
+        Assertions.assertEquals(BoardState.capture(reference), BoardState.capture(board));
+        Assertions.assertEquals(reference.getCardsDealt(), board.getCardsDealt());
+    }
+
+    @Test
+    void listenersAreNotifiedOnGameLoop() throws Exception {
+        GameController controller = gameLoop.getController();
+        List<Thread> threads = new ArrayList<>();
+        controller.addGameListener(new GameListener() {
+            @Override
+            public void stepExecuted(Player player, int register) {
+                threads.add(Thread.currentThread());
+            }
+        });
+
+        program(controller);
+        controller.finishProgrammingPhase();
+        controller.executeStep();
+        gameLoop.submit(gameController -> { }).get();
+
+        Assertions.assertEquals(1, threads.size());
+        Assertions.assertNotSame(Thread.currentThread(), threads.get(0));
+        Assertions.assertEquals(Phase.ACTIVATION, board.getPhase());
+    }
+
+    @Test
+    void commandsAreExecutedByEngine() throws Exception {
+        GameController controller = gameLoop.getController();
+        Player player = board.getPlayer(0);
+        Heading heading = player.getHeading();
+
+        controller.turnLeft(player);
+        Assertions.assertEquals(MoveResult.QUEUED, controller.moveForward(player, heading.prev()));
+        controller.handleWin(board.getPlayer(1));
+        gameLoop.submit(gameController -> { }).get();
+
+        referenceController.turnLeft(reference.getPlayer(0));
+        referenceController.moveForward(reference.getPlayer(0), heading.prev());
+        referenceController.handleWin(reference.getPlayer(1));
+        Assertions.assertEquals(BoardState.capture(reference), BoardState.capture(board));
+        Assertions.assertSame(board.getPlayer(1), controller.getWinner());
+        Assertions.assertEquals(Phase.FINISHED, board.getPhase());
+    }
+
+    @Test
+    void moveCardsDoesNotWait() throws Exception {
+        GameController controller = gameLoop.getController();
+        CountDownLatch busy = new CountDownLatch(1);
+        gameLoop.submit(gameController -> {
+            try {
+                busy.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Player player = board.getPlayer(0);
+        CommandCard card = player.getCardField(0).getCard();
+        Assertions.assertTrue(controller.moveCards(player.getCardField(0), player.getProgramField(0)));
+        Assertions.assertSame(card, player.getProgramField(0).getCard());
+        Assertions.assertFalse(controller.moveCards(player.getCardField(0), player.getProgramField(1)));
+
+        busy.countDown();
+        gameLoop.submit(gameController -> { }).get();
+        Assertions.assertNull(player.getCardField(0).getCard());
+        Assertions.assertEquals(card.command, player.getProgramField(0).getCard().command);
+    }
+
+    @Test
+    void initializedByController() throws Exception {
+        Board empty = new Board(TEST_WIDTH, TEST_HEIGHT);
+        empty.setSeed(42);
+        GameLoop emptyLoop = new GameLoop(empty, Runnable::run);
+        try {
+            emptyLoop.getController().initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue"));
+            emptyLoop.submit(gameController -> { }).get();
+
+            Board expected = new Board(TEST_WIDTH, TEST_HEIGHT);
+            expected.setSeed(42);
+            new GameController(expected).initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue"));
+            Assertions.assertEquals(BoardState.capture(expected), BoardState.capture(empty));
+            Assertions.assertEquals("green", empty.getPlayer(1).getColor());
+        } finally {
+            emptyLoop.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package dk.dtu.compute.se.pisd.roborally.controller;
+
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class ReplayRecorderTest {
+
+    private final int TEST_WIDTH = 8;
+    private final int TEST_HEIGHT = 8;
+
+    private final int ROUNDS = 20;
+
+    private GameController gameController;
+    private ReplayRecorder recorder;
+    private final List<BoardState> states = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        board.getSpace(3,3).setAction(new ConveyorBelt(Heading.NORTH));
+        board.getSpace(5,2).setAction(new Gear(true));
+        board.setSeed(11);
+        gameController = new GameController(board);
+        gameController.initialize(4, Arrays.asList("red", "green", "blue", "orange"));
+
+        recorder = new ReplayRecorder(board);
+        gameController.addGameListener(recorder);
+        states.add(BoardState.capture(board));
+        gameController.addGameListener(new GameListener() {
+            @Override
+            public void stepExecuted(Player player, int register) {
+                states.add(BoardState.capture(board));
+            }
+        });
+    }
+
+    private void playRounds() {
+        Board board = gameController.board;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                Player player = board.getPlayer(i);
+                for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                    gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+                }
+            }
+            gameController.finishProgrammingPhase();
+            gameController.executePrograms();
+            while (board.getPhase() == Phase.PLAYER_INTERACTION) {
+                Player player = board.getCurrentPlayer();
+                Command command = player.getProgramField(board.getStep()).getCard().command;
+                gameController.executeCommandOptionAndContinue(player, command.getOptions().get(0));
+            }
+        }
+    }
+
+    @Test
+    void everyFrameCanBeRestored() {
+        playRounds();
+        GameRecording recording = recorder.getRecording();
+        Assertions.assertEquals(states.size(), recording.size());
+        Assertions.assertTrue(recording.size() > 2 * GameRecording.KEYFRAME_INTERVAL);
+
+        Board replay = gameController.board.copy();
+        for (int frame = recording.size() - 1; frame >= 0; frame -= 7) {
+            Assertions.assertEquals(states.get(frame), recording.getState(frame));
+            recording.seek(frame, replay);
+            Assertions.assertEquals(states.get(frame), BoardState.capture(replay));
+        }
+    }
+
+    @Test
+    void framesKnowTheirRound() {
+        playRounds();
+        GameRecording recording = recorder.getRecording();
+        Assertions.assertEquals(1, recording.getRound(0));
+        Assertions.assertEquals(ROUNDS + 1, recording.getRound(recording.size() - 1));
+    }
+
+}
@@ -0,0 +1,121 @@
+package dk.dtu.compute.se.pisd.roborally.dal;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.List;
+
+class RepositoryTest {
+
+    private final int NUMBER_OF_PLAYERS = 4;
+
+    private static int databases;
+
+    private Connector connector;
+    private Repository repository;
+    private Board board;
+    private GameController gameController;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        // a new in-memory database for each test
+        String url = "jdbc:h2:mem:roborally" + databases++ + ";MODE=MySQL;DB_CLOSE_DELAY=-1";
+        connector = new Connector(url, "sa", "", 2);
+        repository = new Repository(connector);
+        board = LoadBoard.loadBoard("defaultboard");
+        board.setSeed(5);
+        gameController = new GameController(board);
+        gameController.initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue", "orange"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connector.close();
+    }
+
+    private void assertSameGame(Board expected, Board actual) {
+        Assertions.assertEquals(BoardState.capture(expected), BoardState.capture(actual));
+        Assertions.assertEquals(expected.getMap(), actual.getMap());
+        Assertions.assertEquals(expected.getSeed(), actual.getSeed());
+        Assertions.assertEquals(expected.getCardsDealt(), actual.getCardsDealt());
+        for (int i = 0; i < expected.getPlayersNumber(); i++) {
+            Assertions.assertEquals(expected.getPlayer(i).getName(), actual.getPlayer(i).getName());
+            Assertions.assertEquals(expected.getPlayer(i).getColor(), actual.getPlayer(i).getColor());
+        }
+    }
+
+    @Test
+    void createAndLoad() {
+        Assertions.assertTrue(repository.createGameInDB(board, "test"));
+        Assertions.assertNotNull(board.getGameId());
+
+        Board loaded = repository.loadGameFromDB(board.getGameId());
+        Assertions.assertNotNull(loaded);
+        Assertions.assertEquals(board.getGameId(), loaded.getGameId());
+        assertSameGame(board, loaded);
+
+        List<GameInDB> games = repository.getGames();
+        Assertions.assertEquals(1, games.size());
+        Assertions.assertEquals("test", games.get(0).name);
+    }
+
+    @Test
+    void updateAndLoad() {
+        Assertions.assertTrue(repository.createGameInDB(board, "test"));
+
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+            }
+        }
+        gameController.finishProgrammingPhase();
+        board.getPlayer(1).setSpace(board.getDeadSpace());
+        board.getPlayer(2).setRebooting(true);
+        board.getPlayer(3).setCurrentCheckpoint(2);
+        Assertions.assertTrue(repository.updateGameInDB(board));
+
+        assertSameGame(board, repository.loadGameFromDB(board.getGameId()));
+    }
+
+    @Test
+    void gameIdIsRequired() {
+        Assertions.assertFalse(repository.updateGameInDB(board));
+        Assertions.assertTrue(repository.createGameInDB(board, "test"));
+        Assertions.assertFalse(repository.createGameInDB(board, "test"));
+        Assertions.assertNull(repository.loadGameFromDB(board.getGameId() + 1));
+    }
+
+    @Test
+    void corruptGameIsNotLoaded() throws SQLException {
+        String[] corruptions = {
+                "UPDATE Game SET phase = 99",
+                "UPDATE Player SET heading = 7 WHERE playerID = 1",
+                "UPDATE CardField SET command = 42 WHERE playerID = 2 AND position = 0",
+                "UPDATE CardField SET position = 30 WHERE playerID = 3 AND position = 0"};
+        for (String corruption : corruptions) {
+            Board game = board.copy();
+            Assertions.assertTrue(repository.createGameInDB(game, "test"));
+            int id = game.getGameId();
+            Connection connection = connector.getConnection();
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(corruption + (corruption.contains("WHERE") ? " AND" : " WHERE")
+                        + " gameID = " + id);
+            } finally {
+                connector.releaseConnection(connection);
+            }
+
+            Assertions.assertNull(repository.loadGameFromDB(id), corruption);
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardState;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+
+class BinarySaveFormatTest {
+
+    private final int NUMBER_OF_PLAYERS = 3;
+
+    private Board board;
+    private GameController gameController;
+
+    @BeforeEach
+    void setUp() {
+        board = LoadBoard.loadBoard("defaultboard");
+        board.setSeed(11);
+        gameController = new GameController(board);
+        gameController.initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue"));
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+            }
+        }
+        gameController.finishProgrammingPhase();
+        gameController.executeStep();
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySaveFormat.write(board, out);
+        Board loaded = BinarySaveFormat.read(new ByteArrayInputStream(out.toByteArray()));
+
+        Assertions.assertEquals(BoardState.capture(board), BoardState.capture(loaded));
+        Assertions.assertEquals(board.getMap(), loaded.getMap());
+        Assertions.assertEquals(board.getSeed(), loaded.getSeed());
+        Assertions.assertEquals(board.getCardsDealt(), loaded.getCardsDealt());
+        Assertions.assertEquals(board.getCurrentPlayer().getName(), loaded.getCurrentPlayer().getName());
+    }
+
+    @Test
+    void smallerThanJson() throws IOException {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinarySaveFormat.write(board, binary);
+        StringWriter json = new StringWriter();
+        LoadBoard.writeCurrentGame(board, json);
+
+        Assertions.assertTrue(binary.size() < json.toString().length());
+    }
+
+    @Test
+    void sameGameAsJson() throws IOException {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        BinarySaveFormat.write(board, binary);
+        StringWriter json = new StringWriter();
+        LoadBoard.writeCurrentGame(board, json);
+
+        Board fromBinary = BinarySaveFormat.read(new ByteArrayInputStream(binary.toByteArray()));
+        Board fromJson = LoadBoard.readActiveGame(new StringReader(json.toString()));
+        Assertions.assertEquals(BoardState.capture(fromJson), BoardState.capture(fromBinary));
+    }
+
+    @Test
+    void unknownFormatIsRejected() {
+        byte[] data = "{\"map\": \"defaultboard\"}".getBytes();
+        Assertions.assertThrows(IOException.class, () -> BinarySaveFormat.read(new ByteArrayInputStream(data)));
+    }
+
+    @Test
+    void corruptGameIsRejected() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        BinarySaveFormat.write(board, out);
+        byte[] data = out.toByteArray();
+
+        for (int i = 0; i < data.length; i++) {
+            for (int value : new int[]{0x7F, 0xFF}) {
+                byte[] corrupt = data.clone();
+                corrupt[i] = (byte) value;
+                readOrFail(corrupt);
+            }
+            readOrFail(Arrays.copyOf(data, i));
+        }
+    }
+
+    private static void readOrFail(byte[] data) {
+        try {
+            BinarySaveFormat.read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            // a corrupt saved game must be reported by an IOException only
+        }
+    }
+
+}
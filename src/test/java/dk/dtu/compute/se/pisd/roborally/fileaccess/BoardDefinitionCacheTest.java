@@ -0,0 +1,142 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.Checkpoint;
+import dk.dtu.compute.se.pisd.roborally.model.Player;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+class BoardDefinitionCacheTest {
+
+    private final int TEST_WIDTH = 4;
+    private final int TEST_HEIGHT = 4;
+
+    private Path folder;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("roborally-boards");
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private BoardDefinitionCache cache(int maximumSize) {
+        return new BoardDefinitionCache(folder, "json", maximumSize, name -> {
+            Path file = folder.resolve(name + ".json");
+            if (!Files.exists(file)) {
+                throw new FileNotFoundException(file.toString());
+            }
+            loads.incrementAndGet();
+            Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+            board.getSpace(1, 1).setAction(new Checkpoint(1));
+            return new BoardDefinition(board);
+        });
+    }
+
+    @Test
+    void loadedOnce() throws IOException {
+        Files.write(folder.resolve("track.json"), new byte[0]);
+        BoardDefinitionCache cache = cache(4);
+
+        BoardDefinition definition = cache.get("track");
+        Assertions.assertSame(definition, cache.get("track"));
+        Assertions.assertEquals(1, loads.get());
+
+        Board first = definition.createBoard("track");
+        Board second = definition.createBoard("track");
+        Assertions.assertNotSame(first, second);
+        Assertions.assertSame(first.getSpace(1, 1).getAction(), second.getSpace(1, 1).getAction());
+    }
+
+    @Test
+    void missingBoard() {
+        BoardDefinitionCache cache = cache(4);
+        Assertions.assertThrows(FileNotFoundException.class, () -> cache.get("missing"));
+    }
+
+    @Test
+    void leastRecentlyUsedIsEvicted() throws IOException {
+        for (String name : new String[]{"a", "b", "c"}) {
+            Files.write(folder.resolve(name + ".json"), new byte[0]);
+        }
+        BoardDefinitionCache cache = cache(2);
+        cache.get("a");
+        cache.get("b");
+        cache.get("a");
+        cache.get("c");
+        Assertions.assertEquals(3, loads.get());
+
+        cache.get("a");
+        Assertions.assertEquals(3, loads.get());
+        cache.get("b");
+        Assertions.assertEquals(4, loads.get());
+    }
+
+    @Test
+    void changedFileIsInvalidated() throws IOException, InterruptedException {
+        Path file = folder.resolve("track.json");
+        Files.write(file, new byte[0]);
+        BoardDefinitionCache cache = cache(4);
+        BoardDefinition definition = cache.get("track");
+
+        Files.write(file, new byte[]{' '});
+        long deadline = System.currentTimeMillis() + 10000;
+        while (cache.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertNotSame(definition, cache.get("track"));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void cachedBoardReachesCheckpoint() {
+        Board first = LoadBoard.loadBoard("defaultboard");
+        Board second = LoadBoard.loadBoard("defaultboard");
+        Assertions.assertSame(LoadBoard.getBoardDefinition("defaultboard"),
+                LoadBoard.getBoardDefinition("defaultboard"));
+
+        Player player = new Player(second, "red", "Player 1");
+        second.addPlayer(player);
+        Space checkpoint = findCheckpoint(second, 1);
+        Assertions.assertNotNull(checkpoint);
+        player.setSpace(checkpoint);
+
+        new GameController(second).executeFieldActions();
+
+        Assertions.assertEquals(1, player.getCurrentCheckpoint());
+        Assertions.assertNull(findCheckpoint(first, 1).getPlayer());
+    }
+
+    private static Space findCheckpoint(Board board, int number) {
+        for (int x = 0; x < board.width; x++) {
+            for (int y = 0; y < board.height; y++) {
+                Space space = board.getSpace(x, y);
+                if (space.getAction() instanceof Checkpoint
+                        && ((Checkpoint) space.getAction()).getNumber() == number) {
+                    return space;
+                }
+            }
+        }
+        return null;
+    }
+
+}
@@ -0,0 +1,77 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.FieldAction;
+import dk.dtu.compute.se.pisd.roborally.model.Space;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+
+class BoardPackTest {
+
+    private final Path BOARDS = Paths.get("src", "main", "resources", "boards");
+
+    private final Gson gson = new GsonBuilder().
+            registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>()).
+            create();
+
+    private Path file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("roborally", "." + BoardPack.EXTENSION);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    void boardsAreReadFromPack() throws IOException {
+        BoardPack.write(BOARDS, file);
+        BoardPack pack = BoardPack.open(file);
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("defaultboard", "Trailerpark", "demo")), pack.getNames());
+        Assertions.assertNull(pack.openBoard("missing"));
+
+        for (String name : pack.getNames()) {
+            Board fromPack;
+            try (Reader in = pack.openBoard(name)) {
+                fromPack = BoardReader.read(in, gson);
+            }
+            Board fromFile;
+            try (Reader in = Files.newBufferedReader(BOARDS.resolve(name + ".json"))) {
+                fromFile = BoardReader.read(in, gson);
+            }
+            Assertions.assertEquals(fromFile.width, fromPack.width);
+            Assertions.assertEquals(fromFile.height, fromPack.height);
+            for (int x = 0; x < fromFile.width; x++) {
+                for (int y = 0; y < fromFile.height; y++) {
+                    Space expected = fromFile.getSpace(x, y);
+                    Space actual = fromPack.getSpace(x, y);
+                    Assertions.assertEquals(expected.getWallMask(), actual.getWallMask());
+                    Assertions.assertEquals(gson.toJson(expected.getAction()), gson.toJson(actual.getAction()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void otherFileIsRejected() throws IOException {
+        Files.write(file, "{ \"width\": 8 }".getBytes());
+        Assertions.assertThrows(IOException.class, () -> BoardPack.open(file));
+    }
+
+}
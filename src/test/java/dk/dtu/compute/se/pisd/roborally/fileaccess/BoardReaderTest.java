@@ -0,0 +1,78 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.BoardTemplate;
+import dk.dtu.compute.se.pisd.roborally.fileaccess.model.SpaceTemplate;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.HashSet;
+
+class BoardReaderTest {
+
+    private final String BOARDS = "src/main/resources/boards/";
+
+    private final Gson gson = new GsonBuilder().
+            registerTypeAdapter(FieldAction.class, new Adapter<FieldAction>()).
+            create();
+
+    private void assertSameLayout(BoardTemplate expected, Board actual) {
+        Assertions.assertEquals(expected.width, actual.width);
+        Assertions.assertEquals(expected.height, actual.height);
+        for (SpaceTemplate template : expected.spaces) {
+            Space space = actual.getSpace(template.x, template.y);
+            Assertions.assertEquals(new HashSet<>(template.walls), new HashSet<>(space.getWalls()),
+                    "walls of " + template.x + "," + template.y);
+            Assertions.assertEquals(
+                    template.action == null ? null : template.action.getClass(),
+                    space.getAction() == null ? null : space.getAction().getClass());
+            Assertions.assertEquals(gson.toJson(template.action), gson.toJson(space.getAction()));
+        }
+        Assertions.assertEquals(expected.spawnSpaces.size(), actual.getSpawnSpaces().size());
+    }
+
+    @Test
+    void sameLayoutAsGson() throws IOException {
+        for (String name : new String[]{"defaultboard", "Trailerpark", "demo"}) {
+            BoardTemplate template;
+            try (Reader in = new FileReader(BOARDS + name + ".json")) {
+                template = gson.fromJson(in, BoardTemplate.class);
+            }
+            try (Reader in = new FileReader(BOARDS + name + ".json")) {
+                assertSameLayout(template, BoardReader.read(in, gson));
+            }
+        }
+    }
+
+    @Test
+    void spacesBeforeSize() throws IOException {
+        String json = "{ \"spaces\": [ { \"walls\": [\"EAST\"], \"x\": 2, \"y\": 1, \"action\": " +
+                "{ \"INSTANCE\": { \"heading\": \"WEST\" }, " +
+                "\"CLASSNAME\": \"dk.dtu.compute.se.pisd.roborally.model.ConveyorBelt\" } } ], " +
+                "\"spawnSpaces\": [ { \"x\": 0, \"y\": 3 } ], " +
+                "\"width\": 4, \"height\": 5 }";
+        Board board = BoardReader.read(new StringReader(json), gson);
+
+        Assertions.assertEquals(4, board.width);
+        Assertions.assertEquals(5, board.height);
+        Assertions.assertTrue(board.getSpace(2, 1).hasWall(Heading.EAST));
+        ConveyorBelt belt = board.getSpace(2, 1).getActionType(ConveyorBelt.class);
+        Assertions.assertNotNull(belt);
+        Assertions.assertEquals(Heading.WEST, belt.getHeading());
+        Assertions.assertEquals(board.getSpace(0, 3), board.getSpawnSpaces().get(0));
+    }
+
+    @Test
+    void unknownActionIsRejected() {
+        String json = "{ \"width\": 2, \"height\": 2, \"spaces\": [ { \"x\": 0, \"y\": 0, \"action\": " +
+                "{ \"CLASSNAME\": \"no.such.Action\", \"INSTANCE\": {} } } ] }";
+        Assertions.assertThrows(IOException.class, () -> BoardReader.read(new StringReader(json), gson));
+    }
+
+}
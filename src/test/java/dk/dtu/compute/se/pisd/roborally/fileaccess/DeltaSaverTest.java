@@ -0,0 +1,166 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+class DeltaSaverTest {
+
+    private final int NUMBER_OF_PLAYERS = 3;
+
+    private Path folder;
+    private GameSaver saver;
+    private Board board;
+    private GameController gameController;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("roborally-saves");
+        saver = new GameSaver(folder);
+        board = LoadBoard.loadBoard("defaultboard");
+        board.setSeed(3);
+        gameController = new GameController(board);
+        gameController.initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        saver.shutdown(1000);
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private void programAll() {
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+            }
+        }
+        gameController.finishProgrammingPhase();
+    }
+
+    private void step() {
+        if (board.getPhase() == Phase.PLAYER_INTERACTION) {
+            Player player = board.getCurrentPlayer();
+            Command command = player.getProgramField(board.getStep()).getCard().command;
+            gameController.executeCommandOptionAndContinue(player, command.getOptions().get(0));
+        } else if (board.getPhase() == Phase.ACTIVATION) {
+            gameController.executeStep();
+        }
+    }
+
+    private Board load() throws IOException {
+        Path file = folder.resolve("game.json");
+        Board loaded = LoadBoard.readActiveGame(file);
+        DeltaSaver.apply(DeltaSaver.getDeltaPath(file), loaded);
+        return loaded;
+    }
+
+    @Test
+    void baseAndDeltasAreLoaded() throws Exception {
+        DeltaSaver deltas = new DeltaSaver(saver, "game", Integer.MAX_VALUE);
+        deltas.checkpoint(board).get();
+        long baseSize = Files.size(folder.resolve("game.json"));
+
+        programAll();
+        deltas.checkpoint(board).get();
+        for (int i = 0; i < 4; i++) {
+            step();
+            deltas.checkpoint(board).get();
+        }
+
+        Assertions.assertEquals(baseSize, Files.size(folder.resolve("game.json")));
+        Assertions.assertTrue(Files.size(folder.resolve("game.json.delta")) < baseSize);
+        Board loaded = load();
+        Assertions.assertEquals(BoardState.capture(board), BoardState.capture(loaded));
+        Assertions.assertEquals(board.getCardsDealt(), loaded.getCardsDealt());
+    }
+
+    @Test
+    void deltasAreCompacted() throws Exception {
+        DeltaSaver deltas = new DeltaSaver(saver, "game", 1);
+        deltas.checkpoint(board).get();
+        programAll();
+        deltas.checkpoint(board).get();
+
+        Board base = LoadBoard.readActiveGame(folder.resolve("game.json"));
+        Assertions.assertEquals(BoardState.capture(board), BoardState.capture(base));
+        Assertions.assertEquals(0, DeltaSaver.apply(folder.resolve("game.json.delta"), base));
+
+        step();
+        deltas.checkpoint(board).get();
+        Assertions.assertEquals(BoardState.capture(board), BoardState.capture(load()));
+    }
+
+    @Test
+    void deltasOfOtherBaseAreIgnored() throws Exception {
+        DeltaSaver deltas = new DeltaSaver(saver, "game", Integer.MAX_VALUE);
+        deltas.checkpoint(board).get();
+        programAll();
+        deltas.checkpoint(board).get();
+        BoardState programmed = BoardState.capture(board);
+
+        // a full save under the same name replaces the base
+        saver.save(board, "game").get();
+        step();
+        Assertions.assertEquals(programmed, BoardState.capture(load()));
+    }
+
+    @Test
+    void incompleteDeltaIsIgnored() throws Exception {
+        DeltaSaver deltas = new DeltaSaver(saver, "game", Integer.MAX_VALUE);
+        deltas.checkpoint(board).get();
+        programAll();
+        deltas.checkpoint(board).get();
+        BoardState programmed = BoardState.capture(board);
+
+        // a crash in the middle of writing a delta
+        try (FileChannel channel = FileChannel.open(folder.resolve("game.json.delta"), StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{20, 1, 0}));
+        }
+        Assertions.assertEquals(programmed, BoardState.capture(load()));
+    }
+
+    @Test
+    void corruptDeltaIsRejected() throws Exception {
+        DeltaSaver deltas = new DeltaSaver(saver, "game", Integer.MAX_VALUE);
+        deltas.checkpoint(board).get();
+        programAll();
+        deltas.checkpoint(board).get();
+        step();
+        deltas.checkpoint(board).get();
+
+        Path file = folder.resolve("game.json");
+        Path deltaFile = DeltaSaver.getDeltaPath(file);
+        byte[] bytes = Files.readAllBytes(deltaFile);
+        Board base = LoadBoard.readActiveGame(file);
+        for (int i = 4; i < bytes.length; i++) {
+            for (byte value : new byte[]{0x7F, (byte) 0xFF}) {
+                byte[] corrupt = bytes.clone();
+                corrupt[i] = value;
+                Files.write(deltaFile, corrupt);
+                try {
+                    DeltaSaver.apply(deltaFile, base.copy());
+                } catch (IOException e) {
+                    // rejected as corrupt
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+class GameJournalTest {
+
+    private final int TEST_WIDTH = 8;
+    private final int TEST_HEIGHT = 8;
+
+    private final int NUMBER_OF_PLAYERS = 3;
+
+    private Path file;
+    private Board board;
+    private Board save;
+    private GameController gameController;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = Files.createTempFile("roborally", "." + GameJournal.EXTENSION);
+        board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        board.getSpace(2,2).setAction(new ConveyorBelt(Heading.SOUTH));
+        board.getSpace(4,4).setAction(new Gear(false));
+        board.setSeed(7);
+        gameController = new GameController(board);
+        gameController.initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green", "blue"));
+        save = board.copy();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    private void playRound() {
+        for (int i = 0; i < board.getPlayersNumber(); i++) {
+            Player player = board.getPlayer(i);
+            for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+            }
+        }
+        gameController.finishProgrammingPhase();
+        gameController.executePrograms();
+    }
+
+    @Test
+    void replayRebuildsGame() throws IOException {
+        GameJournal journal = GameJournal.start(file, board);
+        playRound();
+        journal.close();
+
+        Assertions.assertTrue(GameJournal.replay(file, save) > 0);
+        Assertions.assertEquals(BoardState.capture(board), BoardState.capture(save));
+        Assertions.assertEquals(board.getCardsDealt(), save.getCardsDealt());
+    }
+
+    @Test
+    void incompleteRecordIsIgnored() throws IOException {
+        GameJournal journal = GameJournal.start(file, board);
+        gameController.finishProgrammingPhase();
+        BoardState finished = BoardState.capture(board);
+        journal.close();
+
+        // a crash in the middle of writing a record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.APPEND)) {
+            channel.write(ByteBuffer.wrap(new byte[]{2, 1, 0}));
+        }
+
+        GameJournal.replay(file, save);
+        Assertions.assertEquals(finished, BoardState.capture(save));
+    }
+
+    @Test
+    void corruptJournalIsRejected() throws IOException {
+        GameJournal journal = GameJournal.start(file, board);
+        playRound();
+        journal.close();
+        byte[] data = Files.readAllBytes(file);
+
+        for (int i = 8; i < data.length; i++) {
+            for (int value : new int[]{0x7F, 0xFF}) {
+                byte[] corrupt = data.clone();
+                corrupt[i] = (byte) value;
+                replayOrFail(corrupt);
+            }
+            replayOrFail(Arrays.copyOf(data, i));
+        }
+    }
+
+    private void replayOrFail(byte[] data) throws IOException {
+        Files.write(file, data);
+        try {
+            GameJournal.replay(file, save.copy());
+        } catch (IOException e) {
+            // a corrupt journal must be reported by an IOException only
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.model.Board;
+import dk.dtu.compute.se.pisd.roborally.model.BoardState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+class GameSaverTest {
+
+    private final int NUMBER_OF_PLAYERS = 2;
+
+    private Path folder;
+    private GameSaver saver;
+    private Board board;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        folder = Files.createTempDirectory("roborally-saves");
+        saver = new GameSaver(folder);
+        board = LoadBoard.loadBoard("defaultboard");
+        new GameController(board).initialize(NUMBER_OF_PLAYERS, Arrays.asList("red", "green"));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        saver.shutdown(1000);
+        try (Stream<Path> files = Files.walk(folder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private long countFiles() throws IOException {
+        try (Stream<Path> files = Files.list(folder)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    void savedInBackground() throws Exception {
+        BoardState saved = BoardState.capture(board);
+        Path file = saver.save(board, "game").get();
+        // changes after the save was requested are not in the save
+        board.getPlayer(0).setSpace(board.getSpace(5, 5));
+
+        Assertions.assertEquals(folder.resolve("game.json"), file);
+        try (Reader in = Files.newBufferedReader(file)) {
+            Assertions.assertEquals(saved, BoardState.capture(LoadBoard.readActiveGame(in)));
+        }
+        Assertions.assertEquals(1, countFiles());
+    }
+
+    @Test
+    void binarySaveReplacesOldSave() throws Exception {
+        saver.save(board, "game." + BinarySaveFormat.EXTENSION).get();
+        board.getPlayer(0).setSpace(board.getSpace(5, 5));
+        Path file = saver.save(board, "game." + BinarySaveFormat.EXTENSION).get();
+
+        try (InputStream in = Files.newInputStream(file)) {
+            Assertions.assertEquals(BoardState.capture(board), BoardState.capture(BinarySaveFormat.read(in)));
+        }
+        Assertions.assertEquals(1, countFiles());
+    }
+
+    @Test
+    void internalSavesAreNotListed() throws Exception {
+        Path games = LoadBoard.getActiveGamesFolder();
+        Path recovery = games.resolve(LoadBoard.getActiveGameFileName(LoadBoard.RECOVERY));
+        Path autosave = games.resolve(LoadBoard.getActiveGameFileName(LoadBoard.AUTOSAVE));
+        // the saves of a game played with the application are not touched
+        Assumptions.assumeFalse(Files.exists(recovery) || Files.exists(autosave));
+
+        GameSaver activeGames = new GameSaver(games);
+        try {
+            activeGames.save(board, LoadBoard.RECOVERY).get();
+            activeGames.save(board, LoadBoard.AUTOSAVE).get();
+
+            Assertions.assertFalse(Arrays.asList(LoadBoard.getActiveGames()).contains(LoadBoard.RECOVERY));
+            Assertions.assertFalse(Arrays.asList(LoadBoard.getActiveGames()).contains(LoadBoard.AUTOSAVE));
+            Assertions.assertNotNull(LoadBoard.loadActiveBoard(LoadBoard.AUTOSAVE));
+        } finally {
+            activeGames.shutdown(1000);
+            Files.deleteIfExists(recovery);
+            Files.deleteIfExists(autosave);
+        }
+    }
+
+    @Test
+    void deletedWithJournalAfterSave() throws Exception {
+        Path journal = folder.resolve("game." + GameJournal.EXTENSION);
+        Files.write(journal, new byte[0]);
+        saver.save(board, "game");
+        saver.delete("game").get();
+
+        Assertions.assertFalse(Files.exists(folder.resolve("game.json")));
+        Assertions.assertFalse(Files.exists(journal));
+    }
+
+}
@@ -0,0 +1,102 @@
+package dk.dtu.compute.se.pisd.roborally.fileaccess;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import dk.dtu.compute.se.pisd.roborally.controller.ReplayRecorder;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class ReplayFileTest {
+
+    private final int ROUNDS = 10;
+
+    private Board board;
+    private GameRecording recording;
+
+    @BeforeEach
+    void setUp() {
+        board = LoadBoard.loadBoard("defaultboard");
+        board.setSeed(7);
+        GameController gameController = new GameController(board);
+        gameController.initialize(3, Arrays.asList("red", "green", "blue"));
+        ReplayRecorder recorder = new ReplayRecorder(board);
+        gameController.addGameListener(recorder);
+        recording = recorder.getRecording();
+
+        for (int round = 0; round < ROUNDS && board.getPhase() != Phase.FINISHED; round++) {
+            for (int i = 0; i < board.getPlayersNumber(); i++) {
+                Player player = board.getPlayer(i);
+                for (int j = 0; j < Player.NO_REGISTERS; j++) {
+                    gameController.moveCards(player.getCardField(j), player.getProgramField(j));
+                }
+            }
+            gameController.finishProgrammingPhase();
+            gameController.executePrograms();
+            while (board.getPhase() == Phase.PLAYER_INTERACTION) {
+                Player player = board.getCurrentPlayer();
+                Command command = player.getProgramField(board.getStep()).getCard().command;
+                gameController.executeCommandOptionAndContinue(player, command.getOptions().get(0));
+            }
+        }
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        byte[] data = ReplayFile.encode(board, recording);
+        ReplayFile replay = ReplayFile.read(new ByteArrayInputStream(data));
+
+        Assertions.assertEquals(board.getMap(), replay.getBoard().getMap());
+        Assertions.assertEquals(board.getPlayer(2).getName(), replay.getBoard().getPlayer(2).getName());
+        Assertions.assertEquals(recording.size(), replay.getRecording().size());
+        for (int frame = 0; frame < recording.size(); frame++) {
+            Assertions.assertEquals(recording.getState(frame), replay.getRecording().getState(frame));
+            Assertions.assertEquals(recording.getRound(frame), replay.getRecording().getRound(frame));
+        }
+    }
+
+    @Test
+    void savedInBackground() throws Exception {
+        Path folder = Files.createTempDirectory("roborally-replays");
+        GameSaver saver = new GameSaver(folder);
+        try {
+            Path file = saver.saveReplay(board, recording, "game").get();
+            Assertions.assertEquals(folder.resolve("game." + ReplayFile.EXTENSION), file);
+            try (InputStream in = Files.newInputStream(file)) {
+                Assertions.assertEquals(recording.size(), ReplayFile.read(in).getRecording().size());
+            }
+        } finally {
+            saver.shutdown(1000);
+            Files.deleteIfExists(folder.resolve("game." + ReplayFile.EXTENSION));
+            Files.deleteIfExists(folder);
+        }
+    }
+
+    @Test
+    void corruptReplayIsRejected() throws IOException {
+        byte[] data = ReplayFile.encode(board, recording);
+        // the frames follow the game, which is tested by BinarySaveFormatTest
+        for (int i = Math.max(0, data.length - 200); i < data.length; i++) {
+            byte[] corrupt = data.clone();
+            corrupt[i] = (byte) 0xFF;
+            readOrFail(corrupt);
+            readOrFail(Arrays.copyOf(data, i));
+        }
+    }
+
+    private static void readOrFail(byte[] data) {
+        try {
+            ReplayFile.read(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            // a corrupt replay must be reported by an IOException only
+        }
+    }
+
+}
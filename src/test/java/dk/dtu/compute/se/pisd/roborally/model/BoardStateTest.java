@@ -0,0 +1,84 @@
+package dk.dtu.compute.se.pisd.roborally.model;
+
+import dk.dtu.compute.se.pisd.roborally.controller.GameController;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+class BoardStateTest {
+
+    private final int TEST_WIDTH = 8;
+    private final int TEST_HEIGHT = 8;
+
+    private GameController gameController;
+
+    @BeforeEach
+    void setUp() {
+        Board board = new Board(TEST_WIDTH, TEST_HEIGHT);
+        board.getSpace(3, 3).addWall(Heading.WEST);
+        board.getSpace(5, 5).setAction(new Gear(true));
+        gameController = new GameController(board);
+        gameController.initialize(3, Arrays.asList("red", "green", "blue"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        gameController = null;
+    }
+
+    @Test
+    void restoreUndoesMoves() {
+        Board board = gameController.board;
+        Player player1 = board.getPlayer(0);
+        Player player2 = board.getPlayer(1);
+        BoardState state = BoardState.capture(board);
+
+        player1.setSpace(board.getSpace(4, 4));
+        player1.setHeading(Heading.EAST);
+        player2.setRebooting(true);
+        player2.setSpace(board.getDeadSpace());
+        player2.getCardField(0).setCard(null);
+        gameController.moveCards(player1.getCardField(1), player1.getProgramField(0));
+        gameController.finishProgrammingPhase();
+
+        state.restore(board);
+
+        Assertions.assertEquals(state, BoardState.capture(board));
+        Assertions.assertEquals(board.getSpace(0, 0), player1.getSpace());
+        Assertions.assertEquals(player1, board.getSpace(0, 0).getPlayer());
+        Assertions.assertEquals(Heading.SOUTH, player1.getHeading());
+        Assertions.assertFalse(player2.isRebooting());
+        Assertions.assertNotNull(player2.getCardField(0).getCard());
+        Assertions.assertNull(player1.getProgramField(0).getCard());
+        Assertions.assertEquals(Phase.PROGRAMMING, board.getPhase());
+    }
+
+    @Test
+    void forkIsIndependent() {
+        Board board = gameController.board;
+        BoardState state = BoardState.capture(board);
+        BoardState fork = state.fork();
+
+        board.getPlayer(2).setSpace(board.getSpace(6, 6));
+        state.update(board);
+
+        Assertions.assertNotEquals(state, fork);
+        Assertions.assertEquals(fork, BoardState.of(fork.toArray()));
+    }
+
+    @Test
+    void copyHasSameLayoutAndState() {
+        Board board = gameController.board;
+        board.getPlayer(1).setSpace(board.getSpace(2, 5));
+        Board copy = board.copy();
+
+        Assertions.assertEquals(BoardState.capture(board), BoardState.capture(copy));
+        Assertions.assertTrue(copy.getSpace(3, 3).getWalls().contains(Heading.WEST));
+        Assertions.assertTrue(copy.getSpace(5, 5).getAction() instanceof Gear);
+        Assertions.assertEquals(copy.getSpace(2, 5), copy.getPlayer(1).getSpace());
+        Assertions.assertNotSame(board.getPlayer(1), copy.getPlayer(1));
+    }
+}
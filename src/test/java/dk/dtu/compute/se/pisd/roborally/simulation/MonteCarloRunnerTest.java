@@ -0,0 +1,59 @@
+package dk.dtu.compute.se.pisd.roborally.simulation;
+
+import dk.dtu.compute.se.pisd.roborally.fileaccess.LoadBoard;
+import dk.dtu.compute.se.pisd.roborally.model.*;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class MonteCarloRunnerTest {
+
+    private final int GAMES = 200;
+    private final int NUMBER_OF_PLAYERS = 3;
+
+    private Board createBoard() {
+        Board board = new Board(8, 8);
+        board.getSpace(2, 1).setAction(new Checkpoint(1));
+        board.getSpace(3, 3).setAction(new ConveyorBelt(Heading.EAST));
+        board.getSpace(4, 4).setAction(new Gear(true));
+        board.getSpace(5, 2).addWall(Heading.NORTH);
+        board.setNumberOfCheckpoints(1);
+        return board;
+    }
+
+    @Test
+    void allGamesRecorded() {
+        MonteCarloRunner runner = new MonteCarloRunner(this::createBoard, NUMBER_OF_PLAYERS, ProgramStrategy.RANDOM, 50);
+        SimulationStatistics statistics = runner.run(GAMES, 1);
+
+        long wins = 0;
+        for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+            wins += statistics.getWins(i);
+        }
+        Assertions.assertEquals(GAMES, statistics.getGames());
+        Assertions.assertEquals(GAMES, wins + statistics.getUndecided());
+        Assertions.assertTrue(wins > 0);
+        Assertions.assertTrue(statistics.getMaxRounds() <= 50);
+    }
+
+    @Test
+    void loadedBoardGamesAreWon() {
+        MonteCarloRunner runner = new MonteCarloRunner(() -> LoadBoard.loadBoard("demo"),
+                NUMBER_OF_PLAYERS, ProgramStrategy.RANDOM, 150);
+        SimulationStatistics statistics = runner.run(50, 1);
+
+        Assertions.assertEquals(50, statistics.getGames());
+        Assertions.assertTrue(statistics.getUndecided() < 50);
+    }
+
+    @Test
+    void sameSeedSameStatistics() {
+        SimulationStatistics parallel = new MonteCarloRunner(this::createBoard, NUMBER_OF_PLAYERS, ProgramStrategy.RANDOM, 50, 4).run(GAMES, 42);
+        SimulationStatistics sequential = new MonteCarloRunner(this::createBoard, NUMBER_OF_PLAYERS, ProgramStrategy.RANDOM, 50, 1).run(GAMES, 42);
+
+        Assertions.assertEquals(sequential.getTotalRounds(), parallel.getTotalRounds());
+        Assertions.assertEquals(sequential.getTotalReboots(), parallel.getTotalReboots());
+        for (int i = 0; i < NUMBER_OF_PLAYERS; i++) {
+            Assertions.assertEquals(sequential.getWins(i), parallel.getWins(i));
+        }
+    }
+}